@@ -0,0 +1,271 @@
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Robert Moseley
+ * EGR227 - Homework 1 (HTML Validator)
+ * Dr. Han
+ * 1/25/2019
+ *
+ * Description: Validates many HTML documents at once on a pool of threads.
+ * Each document is read and checked by one thread with HtmlValidator.check(),
+ * which writes its report to a sink of its own instead of System.out, so the
+ * documents never wait for each other. The report is written as the document
+ * is read and never kept, and without a sink only the errors and tags are
+ * counted, so a document takes the same memory however many errors it has.
+ * The results come back in the order the documents were given, together with
+ * totals for the whole batch: how many documents had errors or could not be
+ * read, and how many documents and characters were validated per second.
+ */
+public class HtmlBatchValidator implements AutoCloseable {
+
+    private final ExecutorService executor;
+
+    //true if the executor was made here, so close() should shut it down
+    private final boolean ownsExecutor;
+
+    //creates a batch validator with one thread per processor
+    public HtmlBatchValidator() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    //creates a batch validator with the given number of threads
+    public HtmlBatchValidator(int threads) {
+        if (threads < 1) throw new IllegalArgumentException("Needs at least one thread");
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.ownsExecutor = true;
+    }
+
+    //creates a batch validator that runs on the given executor. The executor is
+    //not shut down by close()
+    public HtmlBatchValidator(ExecutorService executor) {
+        if (executor == null) throw new IllegalArgumentException("Executor is null");
+        this.executor = executor;
+        this.ownsExecutor = false;
+    }
+
+    //validates documents that are already in memory, keyed by their names,
+    //only counting their errors and tags
+    public Summary validate(Map<String, ? extends CharSequence> documents) throws InterruptedException {
+        return validate(documents, null);
+    }
+
+    //validates documents that are already in memory, keyed by their names, and
+    //writes the report of each one to the sink 'reports' opens for it
+    public Summary validate(Map<String, ? extends CharSequence> documents, Reports reports)
+            throws InterruptedException {
+        if (documents == null) throw new IllegalArgumentException("Documents are null");
+        List<Future<ValidationResult>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        for (Map.Entry<String, ? extends CharSequence> document : documents.entrySet()) {
+            CharSequence text = document.getValue();
+            futures.add(submit(document.getKey(), () -> CharBuffer.wrap(text), reports));
+        }
+        return collect(futures, start);
+    }
+
+    //validates the given files, which are read as UTF-8, only counting their
+    //errors and tags
+    public Summary validateFiles(Collection<Path> files) throws InterruptedException {
+        if (files == null) throw new IllegalArgumentException("Files are null");
+        return validateFiles(files.stream(), null);
+    }
+
+    //validates the files of a stream, starting on each file as soon as the
+    //stream gives it, only counting their errors and tags
+    public Summary validateFiles(Stream<Path> files) throws InterruptedException {
+        return validateFiles(files, null);
+    }
+
+    //validates the files of a stream, starting on each file as soon as the
+    //stream gives it, and writes the report of each one to the sink 'reports'
+    //opens for it
+    public Summary validateFiles(Stream<Path> files, Reports reports) throws InterruptedException {
+        if (files == null) throw new IllegalArgumentException("Files are null");
+        List<Future<ValidationResult>> futures = new ArrayList<>();
+        long start = System.nanoTime();
+        files.forEachOrdered(file -> futures.add(submit(file.toString(),
+                () -> new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8), reports)));
+        return collect(futures, start);
+    }
+
+    //shuts down the threads, if this batch validator made them
+    @Override
+    public void close() {
+        if (ownsExecutor) executor.shutdown();
+    }
+
+    //starts validating one document, writing its report to the sink 'reports'
+    //opens for it, or to nowhere if 'reports' is null; a document that cannot be
+    //read, or whose report cannot be written, gives a result that holds the failure
+    private Future<ValidationResult> submit(String name, Source source, Reports reports) {
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            Readable input = null;
+            Appendable report = null;
+            try {
+                input = source.open();
+                report = (reports == null) ? null : reports.open(name);
+                ValidationResult result = HtmlValidator.check(name, input, report);
+                if (report instanceof Flushable) ((Flushable) report).flush();
+                return result;
+            } catch (IOException e) {
+                return new ValidationResult(name, e, System.nanoTime() - start);
+            } finally {
+                close(input);
+                close(report);
+            }
+        });
+    }
+
+    //closes the document or report sink of a document that is done, if it can be closed
+    private static void close(Object done) {
+        if (done instanceof Closeable) {
+            try {
+                ((Closeable) done).close();
+            } catch (IOException e) {
+                //the document has already been read, and the report flushed
+            }
+        }
+    }
+
+    //waits for every document and puts their results together
+    private static Summary collect(List<Future<ValidationResult>> futures, long start)
+            throws InterruptedException {
+        List<ValidationResult> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<ValidationResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            for (Future<ValidationResult> future : futures) {
+                future.cancel(true);
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            for (Future<ValidationResult> future : futures) {
+                future.cancel(true);
+            }
+            throw e;
+        }
+        return new Summary(results, System.nanoTime() - start);
+    }
+
+    //where the text of a document comes from; opened on the thread that validates it
+    private interface Source {
+        Readable open() throws IOException;
+    }
+
+    /**
+     * Where the report of each document goes. open() is called on the thread
+     * that validates the document, so sinks for different documents are
+     * written at the same time; a sink that is Flushable is flushed and one
+     * that is Closeable is closed once its document is done.
+     */
+    public interface Reports {
+        //returns the sink for the report of the named document
+        Appendable open(String name) throws IOException;
+    }
+
+    /**
+     * The results of a batch, in the order the documents were given, and totals for all of them.
+     */
+    public static class Summary {
+        private final List<ValidationResult> results;
+        private final long nanos;
+        private int invalid = 0;
+        private int failed = 0;
+        private long errors = 0;
+        private long tags = 0;
+        private long chars = 0;
+
+        private Summary(List<ValidationResult> results, long nanos) {
+            this.results = Collections.unmodifiableList(results);
+            this.nanos = nanos;
+            for (ValidationResult result : results) {
+                if (result.getFailure() != null) {
+                    failed++;
+                } else if (result.getErrors() > 0) {
+                    invalid++;
+                }
+                errors += result.getErrors();
+                tags += result.getTags();
+                chars += result.getChars();
+            }
+        }
+
+        //returns the result of every document
+        public List<ValidationResult> getResults() {
+            return results;
+        }
+
+        //returns the number of documents in the batch
+        public int getDocuments() {
+            return results.size();
+        }
+
+        //returns the number of documents that were read and had at least one error
+        public int getInvalid() {
+            return invalid;
+        }
+
+        //returns the number of documents that could not be read
+        public int getFailed() {
+            return failed;
+        }
+
+        //returns the number of errors in all of the documents
+        public long getErrors() {
+            return errors;
+        }
+
+        //returns the number of tags in all of the documents
+        public long getTags() {
+            return tags;
+        }
+
+        //returns the number of characters in all of the documents
+        public long getChars() {
+            return chars;
+        }
+
+        //returns how long the whole batch took, in nanoseconds
+        public long getNanos() {
+            return nanos;
+        }
+
+        //returns the number of documents validated per second
+        public double documentsPerSecond() {
+            return results.size() / seconds();
+        }
+
+        //returns the number of characters validated per second
+        public double charsPerSecond() {
+            return chars / seconds();
+        }
+
+        private double seconds() {
+            return Math.max(nanos, 1) / 1e9;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d documents (%d with errors, %d unreadable), %d errors, %d tags"
+                            + " in %.3f s: %.1f documents/s, %.2f MB/s",
+                    results.size(), invalid, failed, errors, tags, seconds(),
+                    documentsPerSecond(), charsPerSecond() / 1e6);
+        }
+    }
+}
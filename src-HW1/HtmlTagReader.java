@@ -0,0 +1,167 @@
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Robert Moseley
+ * EGR227 - Homework 1 (HTML Validator)
+ * Dr. Han
+ * 1/24/2019
+ *
+ * Description: Reads HTML tags one at a time from a Reader (or anything else
+ * that is Readable, like a CharBuffer), so a page never has to be turned into
+ * a queue of tags all at once. Only a small buffer of characters is kept, which
+ * means a file of any size can be read with the same amount of memory.
+ * Element names are made lower case and attributes are skipped, including
+ * quoted values that contain a '>'. Comments, <!...> declarations such as the
+ * doctype, and <?...?> processing instructions are not tags, so they are skipped
+ * too, and a '<' that is not followed by a letter (or '/' and a letter) is text.
+ * Each element name is given an id the first time it is read (see TagSymbols),
+ * so the tags of one element can be matched by comparing ids.
+ */
+public class HtmlTagReader {
+
+    //the number of characters read from the source at a time
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Readable source;
+    private final CharBuffer buffer = CharBuffer.allocate(BUFFER_SIZE);
+    private final StringBuilder name = new StringBuilder();
+    private final TagSymbols symbols = new TagSymbols();
+    private int id = -1;
+    private long charsRead = 0;
+
+    //creates a reader of the tags in the given source
+    public HtmlTagReader(Readable source) {
+        if (source == null) throw new IllegalArgumentException("Source is null");
+        this.source = source;
+        buffer.flip();
+    }
+
+    //returns the next tag in the source, or null when there are no more.
+    //A tag that is cut off by the end of the source is not returned
+    public HtmlTag next() throws IOException {
+        int c = read();
+        while (c >= 0) {
+            if (c != '<') {
+                c = read();
+            } else {
+                c = read();
+                if (c == '!') {
+                    skipDeclaration();
+                    c = read();
+                } else if (c == '?') {
+                    skipPast("?>");
+                    c = read();
+                } else {
+                    boolean isOpenTag = true;
+                    if (c == '/') {
+                        isOpenTag = false;
+                        c = read();
+                    }
+                    if (isLetter(c)) {
+                        return readTag(c, isOpenTag);
+                    }
+                    //not a tag after all; the character may start the next one
+                }
+            }
+        }
+        return null;
+    }
+
+    //returns the id of the element of the last tag next() returned. Tags of the
+    //same element have the same id, and each element's opening and closing tag
+    //is only made once, so the same HtmlTag object comes back every time
+    public int id() {
+        return id;
+    }
+
+    //returns the ids of the element names this reader has seen
+    TagSymbols symbols() {
+        return symbols;
+    }
+
+    //returns the number of characters read from the source so far
+    public long charsRead() {
+        return charsRead;
+    }
+
+    //reads the rest of a tag whose name starts with 'first'
+    private HtmlTag readTag(int first, boolean isOpenTag) throws IOException {
+        name.setLength(0);
+        int c = first;
+        while (isNameChar(c)) {
+            name.append(Character.toLowerCase((char) c));
+            c = read();
+        }
+        //skip the attributes, and any quoted values, up to the closing '>'
+        while (c >= 0 && c != '>') {
+            if (c == '"' || c == '\'') {
+                int quote = c;
+                do {
+                    c = read();
+                } while (c >= 0 && c != quote);
+            }
+            if (c >= 0) c = read();
+        }
+        if (c < 0) return null;
+        id = symbols.intern(name);
+        return symbols.tag(id, isOpenTag);
+    }
+
+    //skips what follows "<!": a comment, a CDATA section or a declaration
+    private void skipDeclaration() throws IOException {
+        int c = read();
+        if (c == '-') {
+            c = read();
+            if (c == '-') {
+                skipPast("-->");
+                return;
+            }
+        } else if (c == '[') {
+            skipPast("]]>");
+            return;
+        }
+        while (c >= 0 && c != '>') {
+            c = read();
+        }
+    }
+
+    //skips characters until just after the given ending, which is at most 4 characters
+    private void skipPast(String end) throws IOException {
+        //the last few characters read are kept 16 bits each in 'window'
+        long target = 0;
+        long mask = 0;
+        for (int i = 0; i < end.length(); i++) {
+            target = (target << 16) | end.charAt(i);
+            mask = (mask << 16) | 0xFFFF;
+        }
+        long window = 0;
+        for (int c = read(); c >= 0; c = read()) {
+            window = ((window << 16) | c) & mask;
+            if (window == target) return;
+        }
+    }
+
+    private static boolean isLetter(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isNameChar(int c) {
+        return isLetter(c) || (c >= '0' && c <= '9') || c == '-' || c == ':' || c == '_' || c == '.';
+    }
+
+    //returns the next character, or -1 at the end of the source
+    private int read() throws IOException {
+        if (!buffer.hasRemaining()) {
+            buffer.clear();
+            int count;
+            do {
+                count = source.read(buffer);
+            } while (count == 0);
+            buffer.flip();
+            if (count < 0) return -1;
+            charsRead += count;
+        }
+        return buffer.get();
+    }
+}
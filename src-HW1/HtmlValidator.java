@@ -1,6 +1,11 @@
-import java.util.LinkedList;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
 import java.util.Queue;
-import java.util.Stack;
 
 /**
  * Robert Moseley
@@ -17,21 +22,22 @@ import java.util.Stack;
  */
 public class HtmlValidator {
 
-    private Queue<HtmlTag> q = new LinkedList<>();
+    //the tags, in an array so they can be looked at in order without being moved
+    private Queue<HtmlTag> q = new ArrayDeque<>();
 
     //constructor #1 – initializes to store an empty queue of tags
     public HtmlValidator() {
 
-        //initializes the queue as an empty queue (LinkedList)
-        this.q = new LinkedList<>();
+        //initializes the queue as an empty queue
+        this.q = new ArrayDeque<>();
     }
 
     //constructor #2 – initializes to store a separate copy of the queue of tags
     public HtmlValidator(Queue<HtmlTag> tags) {
         if (tags == null) throw new IllegalArgumentException("Queue is null");
 
-        //initializes the queue with the tags in the constructor head
-        this.q = tags;
+        //initializes the queue with a copy of the tags in the constructor head
+        this.q = new ArrayDeque<>(tags);
     }
 
     //adds the given tag to the end of the validator queue
@@ -54,83 +60,150 @@ public class HtmlValidator {
 
         //throws illegal argument exception if given element is actually null
         if (element == null) throw new IllegalArgumentException("Tag is null");
-        int size = q.size();
-
-        //loops through all of the tags in the queue and compares them to
-        //the given elements. If the tag matches the element it is permanently
-        //removed from the queue, and the loop moves to the next tag.
-        for (int i = 0; i < size; i++) {
-            HtmlTag tag = q.peek();
-            if (tag.getElement().equals(element)) {
-                q.remove(tag);
-            } else {
-                q.remove(tag);
-                q.add(tag);
-            }
-        }
+
+        //a single pass over the queue that closes up the gaps left by removed
+        //tags as it goes, keeping the rest of the tags in their order
+        q.removeIf(tag -> tag.getElement().equals(element));
     }
 
     //prints an indented text representation of the html tags in the queue
     //and returns errors if unexpected or unclosed tags are found in a given
-    //HTML file. This method calls the helper method, printHTML, which is
-    //responsible for printing the HTML and indentations.
+    //HTML file. The report goes through one buffer instead of a print call per line.
     public void validate() {
-        Stack<HtmlTag> tagStack = new Stack<>();
-        int indentCounter = 0; // a counter for the number of indentations to print
-        for (int i = 0; i < q.size(); i++) {
-            HtmlTag tag = q.remove();
-
-            //checks to see if a tag is an opening tag that requires a closing tag
-            if (tag.isOpenTag() && !tag.isSelfClosing()) {
-                tagStack.push(tag);
-                //produce the indentation and print the correct tag
-                printHtml(indentCounter, tag);
-                //increment the indentation counter to produce another indentation
-                indentCounter++;
-            }
+        Writer out = standardOutput();
+        try {
+            validate(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    //writes the same report as validate() to 'out' and returns the number of
+    //errors that were found. The queue is only read, never changed
+    public int validate(Appendable out) throws IOException {
+        TagSymbols symbols = new TagSymbols();
+        Validation validation = new Validation(out, symbols);
+        for (HtmlTag tag : q) {
+            validation.step(symbols.intern(tag), tag.isOpenTag());
+        }
+        return validation.finish();
+    }
+
+    //validates the HTML read from the given source in the same way as validate(),
+    //without building a queue of its tags first, and prints the report. Only the
+    //tags that are still open are kept, so very large files can be checked.
+    public static void validate(Readable input) throws IOException {
+        Writer out = standardOutput();
+        validate(input, out);
+        out.flush();
+    }
 
-            //prints self-closing, open tags. This protects against occurrences of </br> mainly.
-            if (tag.isSelfClosing() && tag.isOpenTag()) printHtml(indentCounter, tag);
-
-            //checks for closing tags that haven't been added to the stack
-            //but are errors because they do not have their counterpart
-            if (tagStack.size() == 0 && !tag.isOpenTag())
-                System.out.println("ERROR unexpected tag: " + tag);
-
-            //checks to see whether the tags match
-            //and makes sure that the stack is not empty
-            if (!tag.isOpenTag() && !tagStack.isEmpty()) {
-                HtmlTag sTag = tagStack.peek();
-                if (sTag.matches(tag)) {
-                    tagStack.pop();
-                    //decrement the indentation counter so that tags are
-                    //printed with the correct spacing
-                    indentCounter--;
-                    //produce the indentation and print the correct tag
-                    printHtml(indentCounter, tag);
-                } else if (!sTag.matches(tag)) {
-                    System.out.println("ERROR unexpected tag: " + tag);
-                }
+    //validates the HTML read from the given source, writing the report to 'out',
+    //and returns the number of errors that were found
+    public static int validate(Readable input, Appendable out) throws IOException {
+        HtmlTagReader reader = new HtmlTagReader(input);
+        Validation validation = new Validation(out, reader.symbols());
+        for (HtmlTag tag = reader.next(); tag != null; tag = reader.next()) {
+            validation.step(reader.id(), tag.isOpenTag());
+        }
+        return validation.finish();
+    }
+
+    //validates the HTML read from the given source and returns the report, the
+    //number of errors, tags and characters and how long it took, instead of
+    //printing them. Nothing is shared between calls, so threads can run it at once
+    public static ValidationResult check(String name, Readable input) throws IOException {
+        StringBuilder report = new StringBuilder();
+        ValidationResult result = check(name, input, report);
+        return new ValidationResult(name, report.toString(), result.getErrors(), result.getTags(),
+                result.getChars(), result.getNanos());
+    }
+
+    //validates the HTML read from the given source like check(name, input), but
+    //writes the report to 'out' as it goes instead of keeping it, or only counts
+    //if 'out' is null, so the memory used does not grow with the report. The
+    //result has an empty report
+    public static ValidationResult check(String name, Readable input, Appendable out) throws IOException {
+        long start = System.nanoTime();
+        HtmlTagReader reader = new HtmlTagReader(input);
+        Validation validation = new Validation(out, reader.symbols());
+        for (HtmlTag tag = reader.next(); tag != null; tag = reader.next()) {
+            validation.step(reader.id(), tag.isOpenTag());
+        }
+        int errors = validation.finish();
+        return new ValidationResult(name, "", errors, validation.tags,
+                reader.charsRead(), System.nanoTime() - start);
+    }
+
+    //a buffered writer to System.out; it is flushed but never closed
+    private static Writer standardOutput() {
+        return new BufferedWriter(new OutputStreamWriter(System.out));
+    }
+
+    //the state of one validation: the ids of the tags that are still open, which
+    //is also how far to indent, and where the report goes, or null to only count
+    private static class Validation {
+        private final Appendable out;
+        private final TagSymbols symbols;
+        private int[] stack = new int[16];
+        private int depth = 0;
+        private int errors = 0;
+        private long tags = 0;
+
+        public Validation(Appendable out, TagSymbols symbols) {
+            this.out = out;
+            this.symbols = symbols;
+        }
+
+        //checks one tag, given by the id of its element, writing it or an error
+        public void step(int id, boolean isOpenTag) throws IOException {
+            tags++;
+            if (isOpenTag) {
+                //prints the tag; one that requires a closing tag is also kept
+                //and makes the tags after it indent further
+                printHtml(depth, symbols.tag(id, true));
+                if (!symbols.isSelfClosing(id)) push(id);
+            } else if (depth > 0 && stack[depth - 1] == id) {
+                //the tags match, so the open tag is done and the indentation goes back
+                depth--;
+                printHtml(depth, symbols.tag(id, false));
+            } else {
+                //closing tags that do not have their counterpart, including
+                //closing tags when nothing is open, are errors
+                error("ERROR unexpected tag: ", symbols.tag(id, false));
             }
-            q.add(tag);
         }
 
-        //prints the rest of the errors if the stack still has tags in it
-        if (tagStack.size() != 0) {
-            int size = tagStack.size();
-            for (int i = 0; i < size; i++) {
-                System.out.println("ERROR unclosed tag: " + tagStack.pop());
+        //writes the rest of the errors if the stack still has tags in it,
+        //and returns the number of errors
+        public int finish() throws IOException {
+            while (depth > 0) {
+                error("ERROR unclosed tag: ", symbols.tag(stack[--depth], true));
             }
+            return errors;
+        }
+
+        private void push(int id) {
+            if (depth == stack.length) stack = Arrays.copyOf(stack, depth * 2);
+            stack[depth++] = id;
         }
-    }
 
-    //this is a private helper method that avoids redundancy.
-    //its sole responsibility is to print the correct HTML tag
-    //and the correct number of indentations.
-    private void printHtml(int indentCounter, HtmlTag tag) {
-        for (int j = 0; j < indentCounter; j++) {
-            System.out.print("    ");
+        private void error(String message, HtmlTag tag) throws IOException {
+            errors++;
+            if (out == null) return;
+            out.append(message).append(tag.toString()).append(System.lineSeparator());
+        }
+
+        //this is a private helper method that avoids redundancy.
+        //its sole responsibility is to write the correct HTML tag
+        //and the correct number of indentations.
+        private void printHtml(int indentCounter, HtmlTag tag) throws IOException {
+            if (out == null) return;
+            for (int j = 0; j < indentCounter; j++) {
+                out.append("    ");
+            }
+            out.append(tag.toString()).append(System.lineSeparator());
         }
-        System.out.println(tag);
     }
 }
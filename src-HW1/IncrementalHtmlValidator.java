@@ -0,0 +1,254 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Robert Moseley
+ * EGR227 - Homework 1 (HTML Validator)
+ * Dr. Han
+ * 1/27/2019
+ *
+ * Description: Validates a document that keeps changing, such as one being
+ * edited, without starting over after every change. The same rules as
+ * HtmlValidator are used and validate() writes the same report.
+ *
+ * After every tag, the stack of tags that are still open is kept as a
+ * checkpoint. The stacks are immutable linked nodes, so a push adds one node
+ * and a pop just goes back to the node below, and all of the checkpoints
+ * share their nodes. When tags are inserted or removed, checking starts
+ * again from the checkpoint just before the change, and goes on past it
+ * only until the stack is the same as the one that was there before the
+ * change. From then on nothing can be different, so the work done for a
+ * change depends on the change and not on the size of the document (unless
+ * the change opens or closes a tag that the rest of the document is inside).
+ */
+public class IncrementalHtmlValidator {
+
+    //flag bits kept for each tag
+    private static final byte OPEN = 1;
+    private static final byte UNEXPECTED = 2;
+
+    private final TagSymbols symbols = new TagSymbols();
+    private int[] ids = new int[16];
+    private byte[] flags = new byte[16];
+
+    //the checkpoint after each tag: the tags still open once it has been checked
+    private Node[] after = new Node[16];
+    private int size = 0;
+
+    //the number of tags that are unexpected closing tags
+    private int unexpected = 0;
+
+    //creates a validator for an empty document
+    public IncrementalHtmlValidator() {
+    }
+
+    //creates a validator for a document made of the given tags
+    public IncrementalHtmlValidator(Queue<HtmlTag> tags) {
+        if (tags == null) throw new IllegalArgumentException("Queue is null");
+        for (HtmlTag tag : tags) {
+            if (tag == null) throw new IllegalArgumentException("Tag is null");
+            append(symbols.intern(tag), tag.isOpenTag());
+        }
+    }
+
+    //creates a validator for the HTML read from the given source
+    public IncrementalHtmlValidator(Readable input) throws IOException {
+        HtmlTagReader reader = new HtmlTagReader(input);
+        for (HtmlTag tag = reader.next(); tag != null; tag = reader.next()) {
+            append(symbols.intern(tag), tag.isOpenTag());
+        }
+    }
+
+    //returns the number of tags in the document
+    public int size() {
+        return size;
+    }
+
+    //returns the tag at the given index
+    public HtmlTag getTag(int index) {
+        checkIndex(index, size - 1);
+        return symbols.tag(ids[index], (flags[index] & OPEN) != 0);
+    }
+
+    //inserts the given tags so that the first of them is at the given index
+    public void insert(int index, List<HtmlTag> tags) {
+        replace(index, index, tags);
+    }
+
+    //removes the tags from index 'from' up to, but not including, index 'to'
+    public void remove(int from, int to) {
+        replace(from, to, List.of());
+    }
+
+    //replaces the tags from index 'from' up to, but not including, index 'to'
+    //with the given tags, and checks the document again from the change until
+    //the open tags are the same as before it
+    public void replace(int from, int to, List<HtmlTag> tags) {
+        checkIndex(from, size);
+        checkIndex(to, size);
+        if (from > to) throw new IllegalArgumentException("Range is backwards: " + from + " to " + to);
+        if (tags == null) throw new IllegalArgumentException("Tags are null");
+        for (HtmlTag tag : tags) {
+            if (tag == null) throw new IllegalArgumentException("Tag is null");
+        }
+
+        for (int i = from; i < to; i++) {
+            if ((flags[i] & UNEXPECTED) != 0) unexpected--;
+        }
+        int added = tags.size();
+        int moved = size - to;
+        int newSize = from + added + moved;
+        ensureCapacity(newSize);
+        System.arraycopy(ids, to, ids, from + added, moved);
+        System.arraycopy(flags, to, flags, from + added, moved);
+        System.arraycopy(after, to, after, from + added, moved);
+        if (newSize < size) Arrays.fill(after, newSize, size, null);
+        size = newSize;
+
+        Node stack = (from == 0) ? null : after[from - 1];
+        int index = from;
+        for (HtmlTag tag : tags) {
+            ids[index] = symbols.intern(tag);
+            flags[index] = tag.isOpenTag() ? OPEN : 0;
+            stack = step(index, stack);
+            index++;
+        }
+
+        //the tags after the change were checked against the old open tags; go on
+        //until a tag leaves the same open tags behind as it did before
+        for (; index < size; index++) {
+            if ((flags[index] & UNEXPECTED) != 0) unexpected--;
+            Node old = after[index];
+            stack = step(index, stack);
+            if (same(stack, old)) {
+                after[index] = old;
+                break;
+            }
+        }
+    }
+
+    //returns the number of errors: unexpected tags plus tags that are never closed
+    public int getErrors() {
+        return unexpected + depth(last());
+    }
+
+    //returns true if the tag at the given index is a closing tag that does not
+    //match the tag that is open
+    public boolean isUnexpected(int index) {
+        checkIndex(index, size - 1);
+        return (flags[index] & UNEXPECTED) != 0;
+    }
+
+    //writes the same report as HtmlValidator.validate() would for these tags and
+    //returns the number of errors
+    public int validate(Appendable out) throws IOException {
+        if (out == null) throw new IllegalArgumentException("Output is null");
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            if ((flags[i] & OPEN) != 0) {
+                printHtml(out, depth(i == 0 ? null : after[i - 1]), symbols.tag(id, true));
+            } else if ((flags[i] & UNEXPECTED) != 0) {
+                error(out, "ERROR unexpected tag: ", symbols.tag(id, false));
+            } else {
+                printHtml(out, depth(after[i]), symbols.tag(id, false));
+            }
+        }
+        for (Node open = last(); open != null; open = open.below) {
+            error(out, "ERROR unclosed tag: ", symbols.tag(open.id, true));
+        }
+        return getErrors();
+    }
+
+    //adds a tag to the end of the document
+    private void append(int id, boolean isOpenTag) {
+        ensureCapacity(size + 1);
+        ids[size] = id;
+        flags[size] = isOpenTag ? OPEN : 0;
+        size++;
+        step(size - 1, last(size - 2));
+    }
+
+    //checks the tag at the given index when 'stack' is open before it, records
+    //whether it was unexpected and its checkpoint, and returns the checkpoint
+    private Node step(int index, Node stack) {
+        int id = ids[index];
+        flags[index] &= OPEN;
+        if ((flags[index] & OPEN) != 0) {
+            if (!symbols.isSelfClosing(id)) stack = new Node(id, stack);
+        } else if (stack != null && stack.id == id) {
+            stack = stack.below;
+        } else {
+            flags[index] |= UNEXPECTED;
+            unexpected++;
+        }
+        after[index] = stack;
+        return stack;
+    }
+
+    private Node last() {
+        return last(size - 1);
+    }
+
+    //the checkpoint after the given index, or no open tags before the first tag
+    private Node last(int index) {
+        return (index < 0) ? null : after[index];
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ids.length) {
+            int length = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, length);
+            flags = Arrays.copyOf(flags, length);
+            after = Arrays.copyOf(after, length);
+        }
+    }
+
+    private static void checkIndex(int index, int max) {
+        if (index < 0 || index > max) throw new IllegalArgumentException("Index out of range: " + index);
+    }
+
+    private static int depth(Node stack) {
+        return (stack == null) ? 0 : stack.depth;
+    }
+
+    //true if two stacks hold the same tags, which they usually do by sharing nodes
+    private static boolean same(Node a, Node b) {
+        while (a != b) {
+            if (a == null || b == null || a.hash != b.hash || a.depth != b.depth || a.id != b.id) return false;
+            a = a.below;
+            b = b.below;
+        }
+        return true;
+    }
+
+    private static void error(Appendable out, String message, HtmlTag tag) throws IOException {
+        out.append(message).append(tag.toString()).append(System.lineSeparator());
+    }
+
+    private static void printHtml(Appendable out, int indentCounter, HtmlTag tag) throws IOException {
+        for (int j = 0; j < indentCounter; j++) {
+            out.append("    ");
+        }
+        out.append(tag.toString()).append(System.lineSeparator());
+    }
+
+    /**
+     * One open tag on top of the ones below it. Nodes never change, so a stack
+     * can be kept as a checkpoint and shared by every stack built on it.
+     */
+    private static class Node {
+        private final int id;
+        private final Node below;
+        private final int depth;
+        private final int hash;
+
+        public Node(int id, Node below) {
+            this.id = id;
+            this.below = below;
+            this.depth = depth(below) + 1;
+            this.hash = ((below == null) ? 0 : below.hash) * 31 + id + 1;
+        }
+    }
+}
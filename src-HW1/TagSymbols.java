@@ -0,0 +1,124 @@
+import java.util.Arrays;
+
+/**
+ * Robert Moseley
+ * EGR227 - Homework 1 (HTML Validator)
+ * Dr. Han
+ * 1/26/2019
+ *
+ * Description: Gives every element name a small number, its id, the first time
+ * the name is seen: 0 for the first name, 1 for the next new one, and so on.
+ * Two tags are for the same element exactly when their ids are equal, so
+ * matching tags becomes comparing two ints. A name can be looked up straight
+ * from the characters it was read into, without making a String for it, and
+ * the opening and closing tag of each element are only made once.
+ */
+class TagSymbols {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    //open addressing: each slot holds an id + 1, or 0 if it is empty
+    private int[] slots = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY / 2];
+    private String[] names = new String[INITIAL_CAPACITY / 2];
+    private HtmlTag[] openTags = new HtmlTag[INITIAL_CAPACITY / 2];
+    private HtmlTag[] closeTags = new HtmlTag[INITIAL_CAPACITY / 2];
+
+    //for each id, 1 if the element is self-closing, 0 if not and -1 if not known yet
+    private byte[] selfClosing = new byte[INITIAL_CAPACITY / 2];
+    private int size = 0;
+
+    //returns the id of the given element name, giving it the next id if it is new
+    public int intern(CharSequence name) {
+        int hash = hash(name);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (hashes[id] == hash && contentEquals(names[id], name)) return id;
+            slot = (slot + 1) & mask;
+        }
+        if (size == names.length) {
+            grow();
+            return intern(name);
+        }
+        int id = size++;
+        hashes[id] = hash;
+        names[id] = name.toString();
+        selfClosing[id] = -1;
+        slots[slot] = id + 1;
+        return id;
+    }
+
+    //returns the id of the element of the given tag, giving it the next id if it
+    //is new. The tag is kept as the one tag(id, ...) returns for its kind
+    public int intern(HtmlTag tag) {
+        int id = intern(tag.getElement());
+        if (tag.isOpenTag()) {
+            if (openTags[id] == null) openTags[id] = tag;
+        } else {
+            if (closeTags[id] == null) closeTags[id] = tag;
+        }
+        return id;
+    }
+
+    //returns the number of names that have ids
+    public int size() {
+        return size;
+    }
+
+    //returns the element name that has the given id
+    public String name(int id) {
+        return names[id];
+    }
+
+    //returns the opening or closing tag of the element with the given id
+    public HtmlTag tag(int id, boolean isOpenTag) {
+        HtmlTag[] tags = isOpenTag ? openTags : closeTags;
+        if (tags[id] == null) tags[id] = new HtmlTag(names[id], isOpenTag);
+        return tags[id];
+    }
+
+    //returns true if the element with the given id never needs a closing tag
+    public boolean isSelfClosing(int id) {
+        if (selfClosing[id] < 0) selfClosing[id] = (byte) (tag(id, true).isSelfClosing() ? 1 : 0);
+        return selfClosing[id] == 1;
+    }
+
+    //the hash of the characters of a name, so a name hashes the same in any form
+    private static int hash(CharSequence name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + name.charAt(i);
+        }
+        //spread the high bits down, since only the low bits pick a slot
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean contentEquals(String known, CharSequence name) {
+        if (known.length() != name.length()) return false;
+        for (int i = 0; i < known.length(); i++) {
+            if (known.charAt(i) != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    //doubles the room for names and puts every id back into a table twice as big
+    private void grow() {
+        int capacity = names.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        names = Arrays.copyOf(names, capacity);
+        openTags = Arrays.copyOf(openTags, capacity);
+        closeTags = Arrays.copyOf(closeTags, capacity);
+        selfClosing = Arrays.copyOf(selfClosing, capacity);
+        slots = new int[capacity * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+import java.io.IOException;
+
+/**
+ * Robert Moseley
+ * EGR227 - Homework 1 (HTML Validator)
+ * Dr. Han
+ * 1/25/2019
+ *
+ * Description: The outcome of validating one document: its name, the report
+ * that validate() would have printed, how many errors and tags it had, how
+ * many characters were read and how long it took. The report is empty if it
+ * was written somewhere else as the document was read, or not written at all.
+ * A document that could not be read has no report; its failure is kept instead.
+ */
+public class ValidationResult {
+
+    private final String name;
+    private final String report;
+    private final int errors;
+    private final long tags;
+    private final long chars;
+    private final long nanos;
+    private final IOException failure;
+
+    //the result of a document that was validated
+    ValidationResult(String name, String report, int errors, long tags, long chars, long nanos) {
+        this(name, report, errors, tags, chars, nanos, null);
+    }
+
+    //the result of a document that could not be read
+    ValidationResult(String name, IOException failure, long nanos) {
+        this(name, "", 0, 0, 0, nanos, failure);
+    }
+
+    private ValidationResult(String name, String report, int errors, long tags, long chars,
+                             long nanos, IOException failure) {
+        this.name = name;
+        this.report = report;
+        this.errors = errors;
+        this.tags = tags;
+        this.chars = chars;
+        this.nanos = nanos;
+        this.failure = failure;
+    }
+
+    //returns the name the document was given
+    public String getName() {
+        return name;
+    }
+
+    //returns the indented tags and errors, one per line, as validate() prints them,
+    //or an empty string if the report was not kept
+    public String getReport() {
+        return report;
+    }
+
+    //returns the number of unexpected and unclosed tags
+    public int getErrors() {
+        return errors;
+    }
+
+    //returns the number of tags that were read
+    public long getTags() {
+        return tags;
+    }
+
+    //returns the number of characters that were read
+    public long getChars() {
+        return chars;
+    }
+
+    //returns how long the document took, in nanoseconds
+    public long getNanos() {
+        return nanos;
+    }
+
+    //returns why the document could not be read, or null if it was
+    public IOException getFailure() {
+        return failure;
+    }
+
+    //returns true if the document was read and had no errors
+    public boolean isValid() {
+        return failure == null && errors == 0;
+    }
+
+    @Override
+    public String toString() {
+        if (failure != null) return name + ": could not be read (" + failure.getMessage() + ")";
+        return name + ": " + errors + " errors, " + tags + " tags";
+    }
+}
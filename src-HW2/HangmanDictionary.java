@@ -0,0 +1,53 @@
+import java.util.*;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures - Evil Hangman 2
+ * 1/29/2020
+ *
+ * Class description:
+ *
+ * This class splits a word list into one HangmanWords per word length,
+ * once, so that every game played from the list can share them instead
+ * of each game filtering and copying the dictionary for itself. Nothing
+ * changes after the dictionary is built, so it is safe to use from many
+ * threads at the same time.
+ */
+public class HangmanDictionary {
+
+    //the words of each length, by length; lengths without words are left out
+    private final Map<Integer, HangmanWords> buckets;
+
+    //builds the words and letter masks for every length in the word list.
+    //Words longer than HangmanWords.MAX_LENGTH letters are left out.
+    public HangmanDictionary(Collection<String> dictionary) {
+        Map<Integer, List<String>> byLength = new TreeMap<>();
+        for (String word : dictionary) {
+            int length = word.length();
+            if (length >= 1 && length <= HangmanWords.MAX_LENGTH) {
+                byLength.computeIfAbsent(length, key -> new ArrayList<>()).add(word);
+            }
+        }
+        Map<Integer, HangmanWords> buckets = new TreeMap<>();
+        for (Map.Entry<Integer, List<String>> entry : byLength.entrySet()) {
+            buckets.put(entry.getKey(), new HangmanWords(entry.getValue(), entry.getKey()));
+        }
+        this.buckets = Collections.unmodifiableMap(buckets);
+    }
+
+    //returns the words of the given length, which may be none.
+    //Throws an IllegalArgumentException if no word could have that length.
+    public HangmanWords words(int length) {
+        HangmanWords words = buckets.get(length);
+        if (words == null) {
+            words = new HangmanWords(Collections.emptyList(), length);
+        }
+        return words;
+    }
+
+    //returns the word lengths that have at least one word, in increasing order
+    public Set<Integer> lengths() {
+        return buckets.keySet();
+    }
+}
@@ -0,0 +1,100 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures - Evil Hangman 2
+ * 1/29/2020
+ *
+ * Class description:
+ *
+ * This class runs many games of Evil Hangman at once from one shared
+ * HangmanDictionary. Each game is a HangmanManager that only keeps a
+ * bitmap of the words it is still considering, so a game costs a few
+ * kilobytes no matter how many games are running. Games are found by the
+ * id that newGame() hands out.
+ *
+ * Any number of threads can use the engine at the same time. Games are
+ * kept in a concurrent map, and calls on the same game take turns, while
+ * calls on different games never wait for each other.
+ */
+public class HangmanEngine {
+
+    private final HangmanDictionary dictionary;
+    private final Map<Long, HangmanManager> games = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    //creates an engine whose games use the words of the given dictionary
+    public HangmanEngine(HangmanDictionary dictionary) {
+        if (dictionary == null) throw new IllegalArgumentException("Dictionary is null");
+        this.dictionary = dictionary;
+    }
+
+    //starts a game with words of the given length where the player can make
+    //'max' wrong guesses, and returns the id of the game
+    public long newGame(int length, int max) {
+        HangmanManager game = new HangmanManager(dictionary.words(length), max);
+        long id = nextId.incrementAndGet();
+        games.put(id, game);
+        return id;
+    }
+
+    //records a guess in a game; see HangmanManager.record()
+    public int record(long id, char guess) {
+        HangmanManager game = game(id);
+        synchronized (game) {
+            return game.record(guess);
+        }
+    }
+
+    //returns the pattern a game shows to the player
+    public String pattern(long id) {
+        HangmanManager game = game(id);
+        synchronized (game) {
+            return game.pattern();
+        }
+    }
+
+    //returns the number of wrong guesses the player of a game has left
+    public int guessesLeft(long id) {
+        HangmanManager game = game(id);
+        synchronized (game) {
+            return game.guessesLeft();
+        }
+    }
+
+    //returns a copy of the letters that have been guessed in a game
+    public SortedSet<Character> guesses(long id) {
+        HangmanManager game = game(id);
+        synchronized (game) {
+            return new TreeSet<>(game.guesses());
+        }
+    }
+
+    //returns the words a game is still considering. The set does not
+    //change when more guesses are recorded
+    public Set<String> words(long id) {
+        HangmanManager game = game(id);
+        synchronized (game) {
+            return game.words();
+        }
+    }
+
+    //forgets a game, returning false if there was no game with that id
+    public boolean endGame(long id) {
+        return games.remove(id) != null;
+    }
+
+    //returns the number of games that have been started and not ended
+    public int activeGames() {
+        return games.size();
+    }
+
+    private HangmanManager game(long id) {
+        HangmanManager game = games.get(id);
+        if (game == null) throw new IllegalArgumentException("No game with id " + id);
+        return game;
+    }
+}
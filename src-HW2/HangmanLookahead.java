@@ -0,0 +1,321 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures - Evil Hangman 2
+ * 1/30/2020
+ *
+ * Class description:
+ *
+ * A smarter adversary for Evil Hangman. Instead of always keeping the
+ * biggest family, it looks a few guesses ahead: for each family it could
+ * keep, it assumes the player then makes the best guess they can, that it
+ * answers that guess the same way, and so on, and it keeps the family that
+ * does best when the player plays well (minimax).
+ *
+ * A position is scored by the wrong guesses the adversary can force within
+ * the lookahead, and after that by how many words are left. Running the
+ * player out of guesses beats everything else. A player only ever guesses
+ * letters that are in at least one of the words still left.
+ *
+ * Each move has a time budget. The lookahead goes one guess deeper at a time
+ * (1, 2, ... up to the depth it was given) and keeps the deepest answer that
+ * finished in time; if not even the first one finishes, the caller falls
+ * back to keeping the biggest family. Scores are cached by the words left,
+ * the letters guessed, the wrong guesses left and the depth, since the same
+ * position is reached by guessing the same letters in a different order.
+ * Big positions are split across the common ForkJoinPool, one task per letter.
+ */
+public class HangmanLookahead {
+
+    //a wrong guess the adversary can force counts for more than any number of words
+    private static final long MISS = 1L << 32;
+
+    //running the player out of guesses counts for more than anything else
+    private static final long WIN = Long.MAX_VALUE / 4;
+
+    //positions with fewer words than this are searched on one thread
+    private static final int PARALLEL_WORDS = 512;
+
+    //the cache is emptied when it holds more positions than this
+    private static final int CACHE_LIMIT = 200000;
+
+    private static final int LETTERS = 26;
+
+    private final HangmanWords words;
+    private final int depth;
+    private final long budgetNanos;
+    private final Map<Position, Long> cache = new ConcurrentHashMap<>();
+
+    //creates a lookahead for games that use the given words. It looks up to
+    //'depth' guesses ahead but spends at most 'budgetMillis' on a move.
+    //Throws an IllegalArgumentException if depth is less than 1 or the budget is negative
+    public HangmanLookahead(HangmanWords words, int depth, long budgetMillis) {
+        if (words == null || depth < 1 || budgetMillis < 0)
+            throw new IllegalArgumentException("Not a valid lookahead!");
+        this.words = words;
+        this.depth = depth;
+        this.budgetNanos = budgetMillis * 1000000;
+    }
+
+    //returns how many guesses ahead this lookahead looks
+    public int depth() {
+        return depth;
+    }
+
+    //scores the families a guess split the words into, higher being better for
+    //the adversary. 'guessed' has bit i set for every letter 'a' + i that has been
+    //guessed, including this guess, and 'left' is the number of wrong guesses the
+    //player had before it. Returns null if not even a one guess lookahead
+    //finished within the budget
+    long[] score(long[] masks, int[][] families, int guessed, int left) {
+        long deadline = System.nanoTime() + budgetNanos;
+        long[] best = null;
+        for (int d = 1; d <= depth; d++) {
+            Move move = new Move(deadline);
+            long[] scores = ForkJoinPool.commonPool().invoke(move.new FamiliesTask(masks, families, guessed, left, d));
+            if (move.expired) break;
+            best = scores;
+        }
+        if (cache.size() > CACHE_LIMIT) cache.clear();
+        return best;
+    }
+
+    //splits words into families by the masks of one letter; returns the masks and,
+    //in the same order, each family's words in the order they were given
+    static long[] split(int[] candidates, long[] column, MaskCounter counter, List<int[]> families) {
+        counter.clear();
+        for (int candidate : candidates) {
+            counter.increment(column[candidate]);
+        }
+        long[] masks = new long[counter.size()];
+        int[][] bySlot = new int[counter.capacity()][];
+        int[] filled = new int[counter.capacity()];
+        int next = 0;
+        for (int slot = 0; slot < counter.capacity(); slot++) {
+            if (counter.count(slot) > 0) {
+                masks[next++] = counter.mask(slot);
+                bySlot[slot] = new int[counter.count(slot)];
+            }
+        }
+        for (int candidate : candidates) {
+            int slot = counter.slot(column[candidate]);
+            bySlot[slot][filled[slot]++] = candidate;
+        }
+        for (long mask : masks) {
+            families.add(bySlot[counter.slot(mask)]);
+        }
+        return masks;
+    }
+
+    /**
+     * The search for one move at one depth, which gives up once its deadline passes.
+     */
+    private class Move {
+        private final long deadline;
+        private volatile boolean expired;
+
+        public Move(long deadline) {
+            this.deadline = deadline;
+        }
+
+        private boolean timeUp() {
+            if (!expired && System.nanoTime() - deadline >= 0) expired = true;
+            return expired;
+        }
+
+        //the score of a position where the player is about to guess
+        private long player(int[] candidates, int guessed, int left, int depth) {
+            if (depth == 0 || candidates.length <= 1) return candidates.length;
+            if (timeUp()) return 0;
+            Position position = new Position(candidates, guessed, left, depth);
+            Long known = cache.get(position);
+            if (known != null) return known;
+
+            //letters that are in none of the words would be a wasted guess
+            int useful = 0;
+            for (int letter = 0; letter < LETTERS; letter++) {
+                if ((guessed & (1 << letter)) == 0 && appears(candidates, letter)) {
+                    useful |= 1 << letter;
+                }
+            }
+            if (useful == 0) return candidates.length;
+
+            long best = Long.MAX_VALUE;
+            if (candidates.length >= PARALLEL_WORDS) {
+                List<GuessTask> tasks = new ArrayList<>();
+                for (int letter = 0; letter < LETTERS; letter++) {
+                    if ((useful & (1 << letter)) != 0) {
+                        tasks.add(new GuessTask(candidates, guessed, letter, left, depth));
+                    }
+                }
+                for (GuessTask task : ForkJoinTask.invokeAll(tasks)) {
+                    best = Math.min(best, task.join());
+                }
+            } else {
+                MaskCounter counter = new MaskCounter();
+                for (int letter = 0; letter < LETTERS && best > 0; letter++) {
+                    if ((useful & (1 << letter)) != 0) {
+                        best = Math.min(best, adversary(candidates, guessed, letter, left, depth, counter));
+                    }
+                }
+            }
+            if (!expired) cache.put(position, best);
+            return best;
+        }
+
+        //the score after the player guesses 'letter', when the adversary keeps its best family
+        private long adversary(int[] candidates, int guessed, int letter, int left, int depth,
+                               MaskCounter counter) {
+            List<int[]> families = new ArrayList<>();
+            long[] masks = split(candidates, words.column((char) ('a' + letter)), counter, families);
+            int nowGuessed = guessed | (1 << letter);
+            long best = 0;
+            for (int i = 0; i < masks.length && best < WIN; i++) {
+                best = Math.max(best, family(masks[i], families.get(i), nowGuessed, left, depth));
+            }
+            return best;
+        }
+
+        //the score of keeping one family, the guess already counted in 'guessed'
+        private long family(long mask, int[] family, int guessed, int left, int depth) {
+            if (mask != 0) return player(family, guessed, left, depth - 1);
+            if (left <= 1) return WIN;
+            return MISS + player(family, guessed, left - 1, depth - 1);
+        }
+
+        private boolean appears(int[] candidates, int letter) {
+            long[] column = words.column((char) ('a' + letter));
+            for (int candidate : candidates) {
+                if (column[candidate] != 0) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Scores every family of the real guess, one task per family.
+         */
+        private class FamiliesTask extends RecursiveTask<long[]> {
+            private static final long serialVersionUID = 1L;
+
+            private final long[] masks;
+            private final int[][] families;
+            private final int guessed;
+            private final int left;
+            private final int depth;
+
+            public FamiliesTask(long[] masks, int[][] families, int guessed, int left, int depth) {
+                this.masks = masks;
+                this.families = families;
+                this.guessed = guessed;
+                this.left = left;
+                this.depth = depth;
+            }
+
+            @Override
+            protected long[] compute() {
+                List<FamilyTask> tasks = new ArrayList<>();
+                for (int i = 0; i < masks.length; i++) {
+                    //the real guess is not part of the lookahead, so it gets an extra level
+                    tasks.add(new FamilyTask(masks[i], families[i], guessed, left, depth + 1));
+                }
+                invokeAll(tasks);
+                long[] scores = new long[masks.length];
+                for (int i = 0; i < scores.length; i++) {
+                    scores[i] = tasks.get(i).join();
+                }
+                return scores;
+            }
+        }
+
+        /**
+         * Scores keeping one family of the real guess.
+         */
+        private class FamilyTask extends RecursiveTask<Long> {
+            private static final long serialVersionUID = 1L;
+
+            private final long mask;
+            private final int[] family;
+            private final int guessed;
+            private final int left;
+            private final int depth;
+
+            public FamilyTask(long mask, int[] family, int guessed, int left, int depth) {
+                this.mask = mask;
+                this.family = family;
+                this.guessed = guessed;
+                this.left = left;
+                this.depth = depth;
+            }
+
+            @Override
+            protected Long compute() {
+                return family(mask, family, guessed, left, depth);
+            }
+        }
+
+        /**
+         * Scores one guess of the player, so the guesses of a big position run in parallel.
+         */
+        private class GuessTask extends RecursiveTask<Long> {
+            private static final long serialVersionUID = 1L;
+
+            private final int[] candidates;
+            private final int guessed;
+            private final int letter;
+            private final int left;
+            private final int depth;
+
+            public GuessTask(int[] candidates, int guessed, int letter, int left, int depth) {
+                this.candidates = candidates;
+                this.guessed = guessed;
+                this.letter = letter;
+                this.left = left;
+                this.depth = depth;
+            }
+
+            @Override
+            protected Long compute() {
+                return adversary(candidates, guessed, letter, left, depth, new MaskCounter());
+            }
+        }
+    }
+
+    /**
+     * What a score depends on: the words left, the letters guessed, the wrong
+     * guesses left and how much further to look.
+     */
+    private static class Position {
+        private final int[] candidates;
+        private final int guessed;
+        private final int left;
+        private final int depth;
+        private final int hash;
+
+        public Position(int[] candidates, int guessed, int left, int depth) {
+            this.candidates = candidates;
+            this.guessed = guessed;
+            this.left = left;
+            this.depth = depth;
+            this.hash = ((Arrays.hashCode(candidates) * 31 + guessed) * 31 + left) * 31 + depth;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Position)) return false;
+            Position other = (Position) o;
+            return hash == other.hash && guessed == other.guessed && left == other.left
+                    && depth == other.depth && Arrays.equals(candidates, other.candidates);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures - Evil Hangman 2
+ * 1/30/2020
+ *
+ * Class description:
+ *
+ * Measures how long the adversary takes to answer each guess when it
+ * looks 0 (the biggest family), 1, 2 and 3 guesses ahead. Every depth
+ * plays the same game: the player guesses letters in order of how common
+ * they are in English until the game is over, and the time of every
+ * record() call is taken. The dictionary is read once and shared by all
+ * of the games.
+ * Usage: java HangmanLookaheadBenchmark [dictionary file] [word length] [budget in ms]
+ */
+public class HangmanLookaheadBenchmark {
+
+    //the guesses the player makes, most common English letters first
+    private static final String GUESSES = "etaoinshrdlcumwfgypbvkjxqz";
+
+    private static final int MAX_DEPTH = 3;
+    private static final int WRONG_GUESSES = 8;
+    private static final int WARMUP_GAMES = 2;
+
+    public static void main(String[] args) throws IOException {
+        String file = (args.length > 0) ? args[0] : "dictionary2.txt";
+        int length = (args.length > 1) ? Integer.parseInt(args[1]) : 8;
+        long budget = (args.length > 2) ? Long.parseLong(args[2]) : 5000;
+
+        List<String> dictionary = Files.readAllLines(Paths.get(file));
+        HangmanWords words = new HangmanWords(dictionary, length);
+        System.out.println(words.size() + " words of length " + length + ", budget " + budget + " ms per move");
+
+        for (int depth = 0; depth <= MAX_DEPTH; depth++) {
+            for (int i = 0; i < WARMUP_GAMES; i++) {
+                play(words, depth, budget, null);
+            }
+            List<Long> times = new ArrayList<>();
+            HangmanManager game = play(words, depth, budget, times);
+            long total = 0;
+            long worst = 0;
+            for (long time : times) {
+                total += time;
+                worst = Math.max(worst, time);
+            }
+            System.out.printf("depth %d: %d moves, mean %.2f ms, max %.2f ms, %d misses, %d words left%n",
+                    depth, times.size(), total / 1e6 / Math.max(1, times.size()), worst / 1e6,
+                    WRONG_GUESSES - game.guessesLeft(), game.words().size());
+        }
+    }
+
+    //plays one game, adding the time of every move to 'times' if it is not null
+    private static HangmanManager play(HangmanWords words, int depth, long budget, List<Long> times) {
+        HangmanManager game = new HangmanManager(words, WRONG_GUESSES);
+        game.setLookahead(depth, budget);
+        for (int i = 0; i < GUESSES.length() && game.guessesLeft() > 0
+                && game.words().size() > 1 && game.pattern().indexOf('-') >= 0; i++) {
+            long start = System.nanoTime();
+            game.record(GUESSES.charAt(i));
+            if (times != null) times.add(System.nanoTime() - start);
+        }
+        return game;
+    }
+}
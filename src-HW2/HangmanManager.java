@@ -1,5 +1,3 @@
-import com.sun.source.tree.Tree;
-
 import java.util.*;
 
 /**
@@ -24,20 +22,46 @@ import java.util.*;
  * will take words of the initialized length and return patterns for the
  * words that do and do not contain "a". Patterns will range from "- - - -"
  * for words that do not contain "a", and for a word like "meal" it will create
- * a pattern that looks like "- - a -". This pattern is stored in a map whose keys
- * are the pattern and whose values are the set of words from the dictionary
- * that match that given value.
+ * a pattern that looks like "- - a -".
+ *
+ * A pattern only differs from the current one in where the guessed letter
+ * appears, so it is stored as a bitmask of those positions (bit i is set
+ * when the letter is at index i), which is why words can be at most 64
+ * letters long. The words of the right length and the masks of every
+ * letter in them are worked out once by HangmanWords, which games of the
+ * same length can share; the words still being considered are a bitmap
+ * over it, one bit per word, so a game only needs a few kilobytes of its
+ * own even for a very large dictionary. Each guess reads the guessed
+ * letter's masks for those words in one pass, counting the size of each
+ * family in a small hash table, then keeps the biggest family, unless a
+ * HangmanLookahead has been set to pick the family by looking a few
+ * guesses ahead.
  */
 public class HangmanManager {
 
-    private Collection<String> dictionary;
-    private TreeSet<String> wordSet;
+    //the longest word a mask can describe
+    public static final int MAX_LENGTH = HangmanWords.MAX_LENGTH;
+
+    //every word of the target length, sorted with no duplicates, and their letter masks
+    private final HangmanWords dictionary;
+
+    //bit i is set while dictionary.word(i) is still being considered, and how many are set
+    private long[] candidates;
+    private int count;
+
     private SortedSet<Character> chars = new TreeSet<>();
 
-    private int targetLength;
     private int gLeft;
-    private String correctPattern = "";
-    private String originalPattern = "";
+
+    //the pattern with a space between letters, and the String made from it (null when stale)
+    private final char[] display;
+    private String correctPattern;
+
+    //the family counts for record(), kept between guesses so it only allocates when it grows
+    private final MaskCounter families = new MaskCounter();
+
+    //picks families by looking ahead, or null to keep the biggest family
+    private HangmanLookahead lookahead;
 
     //constructor for HangmanManager
     //The constructor accepts a dictionary of words, a target word length,
@@ -46,37 +70,52 @@ public class HangmanManager {
     //The set of words contains all of the words from the dictionary of the
     //given length, and all duplicates have been removed.
     public HangmanManager(Collection<String> dictionary, int length, int max) {
-        //protects the game from being initialized with improper values
-        if (length < 1 || max < 0) throw new IllegalArgumentException("Not a valid game condition!");
+        this(checkedWords(dictionary, length, max), max);
+    }
 
-        for (int i = 0; i < length; i++) {
-            if (i == length - 1) {
-                correctPattern += "-";
-                originalPattern += "-";
-            } else {
-                correctPattern += "- ";
-                originalPattern += "- ";
-            }
+    //constructor for a game that uses words that were already prepared,
+    //which can be shared with other games of the same length.
+    //All of the words are considered at the start of the game.
+    public HangmanManager(HangmanWords words, int max) {
+        if (words == null || max < 0) throw new IllegalArgumentException("Not a valid game condition!");
 
+        display = new char[2 * words.length() - 1];
+        for (int i = 0; i < display.length; i++) {
+            display[i] = (i % 2 == 0) ? '-' : ' ';
         }
 
-        this.dictionary = new TreeSet<>();
-        this.wordSet = new TreeSet<>();
-        this.targetLength = length;
+        this.dictionary = words;
+        this.count = words.size();
+        this.candidates = new long[(count + Long.SIZE - 1) / Long.SIZE];
+        Arrays.fill(candidates, -1L);
+        if (count % Long.SIZE != 0) {
+            candidates[candidates.length - 1] = (1L << count) - 1;
+        }
         this.gLeft = max;
+    }
 
-        for (String word : dictionary) {
-            if (word.length() == length) {
-                this.dictionary.add(word);
-                wordSet.add(word);
-            }
-        }
+    //protects the game from being initialized with improper values
+    //before any work is done on the dictionary
+    private static HangmanWords checkedWords(Collection<String> dictionary, int length, int max) {
+        if (length < 1 || max < 0) throw new IllegalArgumentException("Not a valid game condition!");
+        return new HangmanWords(dictionary, length);
+    }
+
+    //Makes the game look up to 'depth' guesses ahead when picking a family,
+    //spending at most 'budgetMillis' on each guess; when the lookahead does
+    //not finish in time the biggest family is kept as usual. A depth of 0
+    //goes back to always keeping the biggest family.
+    public void setLookahead(int depth, long budgetMillis) {
+        if (depth < 0) throw new IllegalArgumentException("Depth is less than 0.");
+        lookahead = (depth == 0) ? null : new HangmanLookahead(dictionary, depth, budgetMillis);
     }
 
     //This method is called by the client to get access to the
-    //current set of words being considered by the hangman manager
+    //current set of words being considered by the hangman manager.
+    //The set is a read-only view in alphabetical order; it keeps
+    //showing these words even after the next guess is recorded.
     public Set<String> words() {
-        return wordSet;
+        return new WordSet(dictionary, candidates, count);
     }
 
     //This method is called by the client to find out how
@@ -100,6 +139,7 @@ public class HangmanManager {
     //in the correct positions alongside the dashes that have not
     //yet been guessed. No leading or trailing spaces are included.
     public String pattern() {
+        if (correctPattern == null) correctPattern = new String(display);
         return correctPattern;
     }
 
@@ -113,11 +153,11 @@ public class HangmanManager {
 
         //throw IllegalStateException if the number of guesses left is not
         //at least 1, or if the set of words is empty.
-        if (gLeft < 1 || wordSet.isEmpty()) throw new IllegalStateException("It's not me, it's you.");
+        if (gLeft < 1 || count == 0) throw new IllegalStateException("It's not me, it's you.");
 
         //It should throw an IllegalArgumentException if the set of words is
         //both nonempty and the guessed character has already been guessed previously.
-        if (!wordSet.isEmpty() && chars.contains(guess))
+        if (chars.contains(guess))
             throw new IllegalArgumentException("That character has already been guessed!");
 
         //adds the character to the set of guesses since
@@ -128,17 +168,15 @@ public class HangmanManager {
         // and use that guess to generate the best pattern
         // the best pattern is the one that has the most
         // words associated it with it.
-        String pattern = makePatternHelper(guess);
+        long pattern = makePatternHelper(guess);
 
         //2. return the number of occurrences of the guessed letter in the new pattern
-        //i.e update the pattern "-e-e-" or whatever it is
-        //make sure to update correctPattern Global variable
-        int foundChar = 0;
-        for (int i = 0; i < pattern.length(); i++) {
-            if (pattern.charAt(i) == guess) {
-                foundChar++;
-            }
+        //and write the guess into the displayed pattern
+        for (long bits = pattern; bits != 0; bits &= bits - 1) {
+            display[2 * Long.numberOfTrailingZeros(bits)] = guess;
         }
+        correctPattern = null;
+        int foundChar = Long.bitCount(pattern);
 
         //3. update the number of guesses that the player has left
         if (foundChar == 0) {
@@ -147,51 +185,149 @@ public class HangmanManager {
         return foundChar;
     }
 
-    private String makePatternHelper(char guess) {
-        Map<String, TreeSet<String>> map = new TreeMap<>();
-        StringBuilder pattern = new StringBuilder();
-
-        //sorts through the characters in guesses and replaces
-        //hyphens in the pattern if the word contains the guess
-        for (String word : wordSet) {
-            pattern = new StringBuilder();
-            if (!correctPattern.equals(originalPattern)) {
-                pattern.append(correctPattern);
-            } else {
-                for (int i = 0; i < targetLength; i++) {
-                    if (i == targetLength - 1) {
-                        pattern.append("-");
-                    } else {
-                        pattern.append("- ");
-                    }
+    //looks up the mask of the guess in every word, keeps the biggest family
+    //of words with the same mask, and returns that mask
+    private long makePatternHelper(char guess) {
+        long[] column = dictionary.column(guess);
+        families.clear();
 
-                }
+        //one pass over the guess's masks counts how many words have each one
+        for (int block = 0; block < candidates.length; block++) {
+            int base = block * Long.SIZE;
+            for (long bits = candidates[block]; bits != 0; bits &= bits - 1) {
+                families.increment(column[base + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+
+        //finds the largest set of words which can be used to update the word set.
+        //ties go to the pattern that comes first alphabetically, as a TreeMap of
+        //pattern strings would have it
+        long best = 0;
+        int bestSize = 0;
+        for (int slot = 0; slot < families.capacity(); slot++) {
+            int size = families.count(slot);
+            if (size > bestSize || (size == bestSize && size > 0
+                    && comparePatterns(families.mask(slot), best, guess) < 0)) {
+                best = families.mask(slot);
+                bestSize = size;
+            }
+        }
+        if (lookahead != null && families.size() > 1) {
+            long chosen = lookAhead(column, guess);
+            if (chosen != best) {
+                best = chosen;
+                bestSize = families.count(families.slot(chosen));
             }
-            for (int i = 0; i < word.length(); i++) {
-                if (word.charAt(i) == guess) {
-                    pattern.replace(i * 2, i * 2 + 1, "" + guess);
+        }
+
+        //a new bitmap, so sets returned by words() keep showing the old family
+        long[] kept = new long[candidates.length];
+        for (int block = 0; block < candidates.length; block++) {
+            int base = block * Long.SIZE;
+            for (long bits = candidates[block]; bits != 0; bits &= bits - 1) {
+                int bit = Long.numberOfTrailingZeros(bits);
+                if (column[base + bit] == best) {
+                    kept[block] |= 1L << bit;
                 }
             }
-            if (!map.containsKey(pattern.toString())) {
-                TreeSet<String> set = new TreeSet<>();
-                set.add(word);
-                map.put(pattern.toString(), set);
-            } else {
-                map.get(pattern.toString()).add(word);
+        }
+        candidates = kept;
+        count = bestSize;
+        return best;
+    }
+
+    //returns the mask of the family the lookahead scores best, or of the biggest
+    //family if it runs out of time. Ties go to the bigger family, then to the
+    //pattern that comes first
+    private long lookAhead(long[] column, char guess) {
+        int[] words = new int[count];
+        int next = 0;
+        for (int block = 0; block < candidates.length; block++) {
+            for (long bits = candidates[block]; bits != 0; bits &= bits - 1) {
+                words[next++] = block * Long.SIZE + Long.numberOfTrailingZeros(bits);
             }
         }
+        List<int[]> split = new ArrayList<>();
+        long[] masks = HangmanLookahead.split(words, column, new MaskCounter(), split);
+        int guessed = 0;
+        for (char letter : chars) {
+            if (letter >= 'a' && letter <= 'z') guessed |= 1 << (letter - 'a');
+        }
+        long[] scores = lookahead.score(masks, split.toArray(new int[0][]), guessed, gLeft);
 
-        TreeSet<String> biggestSet = new TreeSet<>();
-        //finds the largest set of words which can be used to update the word set
-        correctPattern = pattern.toString();
-        for (String key : map.keySet()) {
-            if (map.get(key).size() > biggestSet.size()) {
-                biggestSet = map.get(key);
-                correctPattern = key;
+        int best = 0;
+        for (int i = 1; i < masks.length; i++) {
+            int size = split.get(i).length;
+            int bestSize = split.get(best).length;
+            long score = (scores == null) ? 0 : scores[i];
+            long bestScore = (scores == null) ? 0 : scores[best];
+            if (score > bestScore || (score == bestScore && (size > bestSize
+                    || (size == bestSize && comparePatterns(masks[i], masks[best], guess) < 0)))) {
+                best = i;
             }
         }
-        wordSet = biggestSet;
-        return correctPattern;
+        return masks[best];
     }
-}
 
+    //compares the patterns two masks of the same guess make, in String order.
+    //the first position where they differ decides: one pattern has the guess
+    //there and the other has a dash
+    private static int comparePatterns(long a, long b, char guess) {
+        if (a == b) return 0;
+        //reversing the bits puts the first position first, so an unsigned
+        //compare finds the mask with a dash at the first difference
+        int dashFirst = Long.compareUnsigned(Long.reverse(a), Long.reverse(b));
+        return (guess > '-') ? dashFirst : -dashFirst;
+    }
+
+    /**
+     * A read-only, alphabetical view of the words whose bits are set in a bitmap.
+     */
+    private static class WordSet extends AbstractSet<String> {
+        private final HangmanWords dictionary;
+        private final long[] bitmap;
+        private final int size;
+
+        public WordSet(HangmanWords dictionary, long[] bitmap, int size) {
+            this.dictionary = dictionary;
+            this.bitmap = bitmap;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof String)) return false;
+            int index = dictionary.indexOf((String) o);
+            return index >= 0 && (bitmap[index / Long.SIZE] & (1L << index)) != 0;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int block = 0;
+                private long bits = (bitmap.length == 0) ? 0 : bitmap[0];
+
+                @Override
+                public boolean hasNext() {
+                    while (bits == 0 && block + 1 < bitmap.length) {
+                        bits = bitmap[++block];
+                    }
+                    return bits != 0;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    int index = block * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    return dictionary.word(index);
+                }
+            };
+        }
+    }
+}
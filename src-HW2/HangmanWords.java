@@ -0,0 +1,106 @@
+import java.util.*;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures - Evil Hangman 2
+ * 1/28/2020
+ *
+ * Class description:
+ *
+ * This class holds every word of one length from a dictionary, sorted
+ * and with duplicates removed, together with where each letter appears
+ * in each word. For every letter 'a' through 'z' there is one array with
+ * an entry per word: a bitmask with bit i set when the word has that
+ * letter at index i. A HangmanManager only has to read one of these
+ * arrays to split its words into families for a guess, instead of going
+ * through every word character by character.
+ *
+ * Nothing in this class changes after it is built, so one HangmanWords
+ * can be shared by any number of games of the same length, including
+ * games running on different threads.
+ */
+public class HangmanWords {
+
+    //the longest word a mask can describe
+    public static final int MAX_LENGTH = Long.SIZE;
+
+    private static final int LETTERS = 26;
+
+    private final int length;
+
+    //the words, sorted with no duplicates
+    private final String[] words;
+
+    //masks[letter][word] is where that letter appears in that word
+    private final long[][] masks;
+
+    //builds the word list and masks for one word length of a dictionary.
+    //Throws an IllegalArgumentException if the length is less than 1 or
+    //longer than a mask can describe.
+    public HangmanWords(Collection<String> dictionary, int length) {
+        if (length < 1) throw new IllegalArgumentException("Not a valid game condition!");
+        if (length > MAX_LENGTH) throw new IllegalArgumentException("Words can be at most " + MAX_LENGTH + " letters long!");
+        this.length = length;
+
+        SortedSet<String> sorted = new TreeSet<>();
+        for (String word : dictionary) {
+            if (word.length() == length) {
+                sorted.add(word);
+            }
+        }
+        words = sorted.toArray(new String[0]);
+
+        masks = new long[LETTERS][words.length];
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+            for (int j = 0; j < length; j++) {
+                int letter = word.charAt(j) - 'a';
+                if (letter >= 0 && letter < LETTERS) {
+                    masks[letter][i] |= 1L << j;
+                }
+            }
+        }
+    }
+
+    //returns the length of every word
+    public int length() {
+        return length;
+    }
+
+    //returns the number of words
+    public int size() {
+        return words.length;
+    }
+
+    //returns the word at the given index, in alphabetical order
+    public String word(int index) {
+        return words[index];
+    }
+
+    //returns the index of a word, or a negative number if it is not one of the words
+    public int indexOf(String word) {
+        return Arrays.binarySearch(words, word);
+    }
+
+    //returns where the letter appears in the word at the given index
+    public long mask(int index, char letter) {
+        return column(letter)[index];
+    }
+
+    //returns the mask of a letter for every word. For 'a' through 'z' this is
+    //the shared array and must not be changed; any other character is rare
+    //enough that its masks are worked out when they are asked for
+    long[] column(char letter) {
+        if (letter >= 'a' && letter <= 'z') return masks[letter - 'a'];
+        long[] column = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            for (int j = 0; j < length; j++) {
+                if (words[i].charAt(j) == letter) {
+                    column[i] |= 1L << j;
+                }
+            }
+        }
+        return column;
+    }
+}
@@ -0,0 +1,83 @@
+import java.util.Arrays;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures - Evil Hangman 2
+ * 1/30/2020
+ *
+ * Class description:
+ *
+ * An open addressing hash table from a pattern mask to the number of
+ * words with that mask, used to find the families a guess splits words into.
+ * It is cleared and reused for every guess instead of being built again.
+ * A slot is empty while its count is 0.
+ */
+class MaskCounter {
+    private long[] keys = new long[16];
+    private int[] counts = new int[16];
+    private int size;
+
+    public void clear() {
+        Arrays.fill(counts, 0);
+        size = 0;
+    }
+
+    public void increment(long mask) {
+        int slot = find(keys, counts, mask);
+        if (counts[slot] == 0) {
+            keys[slot] = mask;
+            size++;
+        }
+        counts[slot]++;
+        if (2 * size > keys.length) grow();
+    }
+
+    //the number of different masks counted since the last clear()
+    public int size() {
+        return size;
+    }
+
+    //the number of slots; only slots with a count above 0 hold a mask
+    public int capacity() {
+        return keys.length;
+    }
+
+    //the slot that holds a mask that has been counted
+    public int slot(long mask) {
+        return find(keys, counts, mask);
+    }
+
+    //the number of words in a slot, 0 if it is empty
+    public int count(int slot) {
+        return counts[slot];
+    }
+
+    public long mask(int slot) {
+        return keys[slot];
+    }
+
+    //the slot that holds mask, or the empty slot where it belongs
+    private static int find(long[] keys, int[] counts, long mask) {
+        int last = keys.length - 1;
+        int slot = Long.hashCode(mask * 0x9E3779B97F4A7C15L) & last;
+        while (counts[slot] != 0 && keys[slot] != mask) {
+            slot = (slot + 1) & last;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldCounts[i] != 0) {
+                int slot = find(keys, counts, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+}
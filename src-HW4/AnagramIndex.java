@@ -0,0 +1,182 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures
+ * 2/24/2020
+ *
+ * Class description: This class groups the words of a dictionary into
+ * anagram classes. Two words are in the same class when they use exactly
+ * the same letters, which is the same as having the same sorted letters
+ * (the LetterInventory signature). Finding every exact anagram of a word
+ * is then a single map look-up, and the Anagrams search can try each
+ * class once instead of trying every word that shares its letters.
+ *
+ * The signatures are also kept in a LetterTrie, so the classes that fit
+ * in a phrase are found by walking only the part of the trie that the
+ * phrase's letters can reach.
+ *
+ * Classes are numbered in the order their first word appears in the
+ * dictionary, and the words of a class keep their dictionary order.
+ * An index can be saved to a file and loaded again so it does not have
+ * to be rebuilt every time the program starts.
+ */
+import java.io.*;
+import java.util.*;
+
+public class AnagramIndex {
+
+    //written at the start of every saved index so other files are rejected
+    private static final int MAGIC = 0x414E4731;
+
+    //the sorted letters, words and inventory of each anagram class
+    private final String[] signatures;
+    private final String[][] words;
+    private final LetterInventory[] inventories;
+
+    //the number of each class, by signature
+    private final Map<String, Integer> classes;
+
+    //every signature, for finding the classes that fit in a set of letters
+    private final LetterTrie trie = new LetterTrie();
+
+    /**
+     * Builds the index for a dictionary.
+     * @param dictionary a list of words; a word listed more than once is only kept once
+     * Post: every word of the dictionary is in exactly one anagram class.
+     */
+    public AnagramIndex(List<String> dictionary) {
+        Map<String, Set<String>> groups = new LinkedHashMap<>();
+        for (String word : dictionary) {
+            String signature = new LetterInventory(word).signature();
+            groups.computeIfAbsent(signature, key -> new LinkedHashSet<>()).add(word);
+        }
+        signatures = groups.keySet().toArray(new String[0]);
+        words = new String[signatures.length][];
+        for (int i = 0; i < signatures.length; i++) {
+            words[i] = groups.get(signatures[i]).toArray(new String[0]);
+        }
+        inventories = new LetterInventory[signatures.length];
+        classes = new HashMap<>();
+        finish();
+    }
+
+    //used by load(), which has already read the classes
+    private AnagramIndex(String[] signatures, String[][] words) {
+        this.signatures = signatures;
+        this.words = words;
+        this.inventories = new LetterInventory[signatures.length];
+        this.classes = new HashMap<>();
+        finish();
+    }
+
+    //fills in the inventories and the signature map
+    private void finish() {
+        for (int i = 0; i < signatures.length; i++) {
+            inventories[i] = new LetterInventory(signatures[i]);
+            classes.put(signatures[i], i);
+            trie.add(signatures[i], i);
+        }
+    }
+
+    /**
+     * Finds every dictionary word that is an exact anagram of the given text.
+     * @param text a word or phrase; anything that is not a letter is ignored
+     * @return returns the matching words in dictionary order, or an empty list.
+     */
+    public List<String> anagramsOf(String text) {
+        Integer index = classes.get(new LetterInventory(text).signature());
+        if (index == null) return Collections.emptyList();
+        return Collections.unmodifiableList(Arrays.asList(words[index]));
+    }
+
+    /**
+     * @return returns the number of anagram classes.
+     */
+    public int size() {
+        return signatures.length;
+    }
+
+    /**
+     * @param index the number of an anagram class
+     * @return returns the sorted letters shared by the words of the class.
+     */
+    public String signature(int index) {
+        return signatures[index];
+    }
+
+    /**
+     * @param index the number of an anagram class
+     * @return returns the words of the class, in dictionary order.
+     */
+    public List<String> words(int index) {
+        return Collections.unmodifiableList(Arrays.asList(words[index]));
+    }
+
+    /**
+     * Finds every class whose words can be made from the given letters.
+     * @param letters the letters that are available
+     * @return returns the numbers of those classes in increasing order, leaving out
+     * a class with no letters.
+     */
+    int[] classesWithin(LetterInventory letters) {
+        int[] counts = new int[26];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = letters.get((char) ('a' + i));
+        }
+        return trie.within(counts);
+    }
+
+    /**
+     * @param index the number of an anagram class
+     * @return returns the letters of the class. The inventory is shared and must not be changed.
+     */
+    LetterInventory inventory(int index) {
+        return inventories[index];
+    }
+
+    //the words of a class without copying them; must not be changed
+    String[] wordArray(int index) {
+        return words[index];
+    }
+
+    /**
+     * Writes the index so that load() can read it back.
+     * @param output where the index is written; it is flushed but not closed
+     * @throws IOException if the index cannot be written
+     */
+    public void save(OutputStream output) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(signatures.length);
+        for (int i = 0; i < signatures.length; i++) {
+            out.writeUTF(signatures[i]);
+            out.writeInt(words[i].length);
+            for (String word : words[i]) {
+                out.writeUTF(word);
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads an index written by save().
+     * @param input where the index is read from; it is not closed
+     * @return returns the index
+     * @throws IOException if the index cannot be read or is not a saved index
+     */
+    public static AnagramIndex load(InputStream input) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(input));
+        if (in.readInt() != MAGIC) throw new IOException("Not a saved anagram index");
+        int size = in.readInt();
+        String[] signatures = new String[size];
+        String[][] words = new String[size][];
+        for (int i = 0; i < size; i++) {
+            signatures[i] = in.readUTF();
+            words[i] = new String[in.readInt()];
+            for (int j = 0; j < words[i].length; j++) {
+                words[i][j] = in.readUTF();
+            }
+        }
+        return new AnagramIndex(signatures, words);
+    }
+}
@@ -11,27 +11,64 @@
  * all anagrams that correspond to the given word or phrase.
  */
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 public class Anagrams {
-    //Hashmap to store the words with their corresponding dictionaries
-    private Map<String, LetterInventory> map = new HashMap<>();
-    private List<String> dictionary;
+    //the dictionary, grouped into classes of words that are anagrams of each other
+    private final AnagramIndex index;
+
+    //the most subproblems print() remembers, or 0 to not remember any
+    private int cacheSize = 0;
 
     /**
-     * A simple constructor that populates the map that is used by print()
-     * pre: map is empty
-     * post: map is populated with words from the dictionary as keys,
-     *          and the values are the inventories of those words.
+     * A simple constructor that builds the anagram index that is used by print()
+     * post: every word of the dictionary is in the index, grouped with the
+     *          other words that use exactly the same letters.
      * @param dictionary a list of words that is passed to the constructor where
      *                   an inventory is made for every word in the dictionary.
      */
     public Anagrams(List<String> dictionary) {
-        //loops through the dictionary and creates a new inventory for each word
-        for (String word : dictionary) {
-            LetterInventory inventory = new LetterInventory(word);
-            map.put(word, inventory);
-        }
-        this.dictionary = dictionary;
+        this(new AnagramIndex(dictionary));
+    }
+
+    /**
+     * Creates an Anagrams object from an index that was already built,
+     * for example one loaded with AnagramIndex.load().
+     * @param index the dictionary, grouped into anagram classes
+     */
+    public Anagrams(AnagramIndex index) {
+        if (index == null) throw new IllegalArgumentException("Index is null");
+        this.index = index;
+    }
+
+    /**
+     * @return returns the anagram index of the dictionary, which can be saved or
+     * used to look up the exact anagrams of a single word.
+     */
+    public AnagramIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets how many subproblems print() remembers. A subproblem is the letters that are
+     * left together with the number of words that may still be used; the same one is
+     * reached through every order of the words that came before it (such as "a b" and
+     * "b a"), so remembering which classes lead to a solution from it means the classes
+     * that don't are only tried once. When more than 'entries' subproblems are remembered
+     * the least recently used one is forgotten, and is searched again if it comes up,
+     * so the memory a search uses grows with 'entries', not with the size of the search.
+     * By default nothing is remembered and print() does not allocate while it searches.
+     * @param entries the most subproblems to remember, or 0 to search without remembering
+     */
+    public void setCacheSize(int entries) {
+        if (entries < 0) throw new IllegalArgumentException("Cache size is less than 0.");
+        cacheSize = entries;
     }
+
     /**
      * This is the main print method. It calls the recursive print() method, where
      * most of the work is done. This method essentially exists to initialize the print
@@ -45,95 +82,569 @@ public class Anagrams {
      */
     public void print(String text, int max) {
         if (max < 0) throw new IllegalArgumentException("Max is less than 0. That seems like your fault.");
-        List<String> solutionList = new ArrayList<>();
         LetterInventory inventory = new LetterInventory(text);
-        List<String> prunedDict = pruned(dictionary, text);
-        print(text, max, inventory, prunedDict, solutionList);
-    }
-
-    /**
-     * This is the main print method where all of the recursive backtracking happens.
-     * This method keeps going until all possible solutions have been found and the
-     * inventory is empty. After all solutions are printed, the program seeks a new anagram
-     * and repeats the process.
-     * @param text this is the word/phrase that anagrams are created for
-     * @param max this is the max number of words in each solution
-     * @param inventory this is the current inventory that is being search
-     * @param dict this is the dictionary that is being evaluated for anagrams
-     * @param solutionList temporary list that stores the current solutions before printing
-     *                     or removal.
-     * Pre: Inventory is full of letters given by 'text', and dictionary is populated with a pruned
-     *                     selection of words from the chosen dictionary file. The solution list
-     *                     is empty.
-     * Post: Inventory is empty, while solutionList contains a solution to the anagrams problem.
-     */
-    private void print(String text, int max, LetterInventory inventory, List<String> dict, List<String> solutionList) {
-        //recursive backtracking
-        if (inventory.isEmpty()) {
-            //base case
-            //prints out all of the words in the stack, once the inventory is empty
-            System.out.print("[");
-            for (int i = 0; i < solutionList.size(); i++) {
-                if (i == solutionList.size() - 1) {
-                    System.out.print(solutionList.get(i));
-                } else {
-                    System.out.print(solutionList.get(i) + ", ");
+        Search search = new Search(pruned(inventory), max, inventory, new PrintSink());
+        if (cacheSize > 0) search.remember(cacheSize);
+        search.run(new int[0], 0);
+    }
+
+    /**
+     * Finds the anagrams of the given text one at a time, only searching as far as
+     * is needed to produce the next one. Nothing is printed, and a caller that
+     * stops asking for solutions never pays for the rest of the search.
+     * @param text this is the word/phrase that is being used to find anagrams of
+     * @param max this is the max number of words in each solution, or 0 for no limit
+     * @return returns an iterator over the solutions, in the same order that print() prints them.
+     */
+    public Iterator<List<String>> iterator(String text, int max) {
+        return new SolutionIterator(text, max, Long.MAX_VALUE);
+    }
+
+    /**
+     * Finds the anagrams of the given text lazily, like iterator(). Use limit() on the
+     * stream to get only the first few solutions.
+     * @param text this is the word/phrase that is being used to find anagrams of
+     * @param max this is the max number of words in each solution, or 0 for no limit
+     * @return returns a sequential stream of the solutions, in the same order that print() prints them.
+     */
+    public Stream<List<String>> stream(String text, int max) {
+        return stream(new SolutionIterator(text, max, Long.MAX_VALUE));
+    }
+
+    /**
+     * Finds the anagrams of the given text lazily, but gives up once the time runs out.
+     * The clock starts when this method is called, and the stream simply ends early
+     * if the search is not finished in time.
+     * @param text this is the word/phrase that is being used to find anagrams of
+     * @param max this is the max number of words in each solution, or 0 for no limit
+     * @param timeout how long the search may take
+     * @param unit the unit of timeout
+     * @return returns a sequential stream of the solutions found in time, in print() order.
+     */
+    public Stream<List<String>> stream(String text, int max, long timeout, TimeUnit unit) {
+        if (timeout < 0) throw new IllegalArgumentException("Timeout is less than 0.");
+        long nanos = unit.toNanos(timeout);
+        long deadline = (nanos >= Long.MAX_VALUE / 2) ? Long.MAX_VALUE : System.nanoTime() + nanos;
+        return stream(new SolutionIterator(text, max, deadline));
+    }
+
+    private static Stream<List<String>> stream(Iterator<List<String>> solutions) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(solutions,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Prints every anagram of the given text like print(), but searches on
+     * every core of the common ForkJoinPool.
+     * @param text this is the word/phrase that is being used to find anagrams of
+     * @param max this is the max number of words in each solution, or 0 for no limit
+     * @param ordered if true the solutions are printed in the same order as print()
+     *                once the search is done; if false each one is printed as soon as
+     *                it is found, in no particular order.
+     * Post: All anagrams corresponding to the user input have been printed.
+     */
+    public void printParallel(String text, int max, boolean ordered) {
+        if (ordered) {
+            StringBuilder line = new StringBuilder();
+            for (List<String> solution : parallelSolutions(text, max)) {
+                line.setLength(0);
+                line.append(solution);
+                System.out.println(line);
+            }
+        } else {
+            parallelSearch(text, max, false);
+        }
+    }
+
+    /**
+     * Finds every anagram of the given text on every core of the common ForkJoinPool.
+     * @param text this is the word/phrase that is being used to find anagrams of
+     * @param max this is the max number of words in each solution, or 0 for no limit
+     * @return returns every solution, in the same order that print() prints them.
+     */
+    public List<List<String>> parallelSolutions(String text, int max) {
+        SearchTask task = parallelSearch(text, max, true);
+        List<List<String>> solutions = new ArrayList<>();
+        task.collect(solutions);
+        return solutions;
+    }
+
+    //runs the parallel search, keeping the solutions in the tasks if 'collect' is true
+    //and printing them as they are found otherwise
+    private SearchTask parallelSearch(String text, int max, boolean collect) {
+        if (max < 0) throw new IllegalArgumentException("Max is less than 0. That seems like your fault.");
+        LetterInventory inventory = new LetterInventory(text);
+        SearchTask task = new SearchTask(pruned(inventory), max, inventory, new int[0], collect);
+        ForkJoinPool.commonPool().invoke(task);
+        return task;
+    }
+
+    /**
+     * The anagram classes that can still be part of a solution: the words of each
+     * class and the letters they share. The search picks classes, so words that are
+     * anagrams of each other are only tried once, and only expanded into their
+     * words when a solution is printed.
+     */
+    private static class Candidates {
+        private final String[][] words;
+        private final LetterInventory[] inventories;
+
+        public Candidates(String[][] words, LetterInventory[] inventories) {
+            this.words = words;
+            this.inventories = inventories;
+        }
+    }
+
+    /**
+     * A subproblem of the search: the letters that are left and the most words they
+     * may still be split into. The budget is never more than the number of letters,
+     * so "no limit" and "at most as many words as letters" are the same key.
+     */
+    private static class State {
+        private final LetterInventory letters;
+        private final int budget;
+        private final int hash;
+
+        public State(LetterInventory letters, int budget) {
+            this.letters = letters;
+            this.budget = budget;
+            this.hash = 31 * letters.hashCode() + budget;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof State)) return false;
+            State other = (State) o;
+            return budget == other.budget && letters.equals(other.letters);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Receives each solution found by a Search. The array is reused for
+     * the next solution, so it has to be copied to be kept.
+     */
+    private interface SolutionSink {
+        void accept(String[] solution, int count);
+    }
+
+    /**
+     * Prints each solution on its own line, reusing one StringBuilder.
+     */
+    private static class PrintSink implements SolutionSink {
+        private final StringBuilder line = new StringBuilder();
+
+        @Override
+        public void accept(String[] solution, int count) {
+            line.setLength(0);
+            line.append('[');
+            for (int i = 0; i < count; i++) {
+                if (i > 0) line.append(", ");
+                line.append(solution[i]);
+            }
+            line.append(']');
+            System.out.println(line);
+        }
+    }
+
+    /**
+     * Keeps a copy of each solution in a list.
+     */
+    private static class ListSink implements SolutionSink {
+        private final List<List<String>> solutions = new ArrayList<>();
+
+        @Override
+        public void accept(String[] solution, int count) {
+            solutions.add(new ArrayList<>(Arrays.asList(solution).subList(0, count)));
+        }
+    }
+
+    /**
+     * Holds everything the recursive backtracking needs so that the search itself
+     * never allocates. There is only one inventory: each anagram class is subtracted
+     * from it in place on the way down and added back on the way up. The classes of
+     * the current solution are kept in a fixed size array; once the inventory is empty
+     * every choice of words from those classes is handed to a SolutionSink.
+     *
+     * After remember() is called the search also keeps, for each subproblem it
+     * finishes, the classes that led to at least one solution, in a least recently used
+     * cache. When a subproblem comes up again only those classes are tried, so the
+     * classes that lead nowhere are not searched again, and the solutions still come
+     * out as they are found and in the same order. An entry only holds class numbers,
+     * never another entry, so forgetting it frees it.
+     */
+    private static class Search {
+        private final Candidates candidates;
+        private final int max;
+        private final LetterInventory inventory;
+        private final SolutionSink sink;
+        private int[] chosen;
+        private String[] solution;
+        private Map<State, int[]> cache;
+
+        //for each level of the search, the classes found so far that lead to a solution
+        private int[][] found;
+        private int[] foundCount;
+
+        /**
+         * @param candidates the pruned anagram classes that solutions are made from
+         * @param max the max number of words in each solution, or 0 for no limit
+         * @param inventory the letters left to use; changed during the search but restored afterwards
+         * @param sink where the solutions go
+         */
+        public Search(Candidates candidates, int max, LetterInventory inventory, SolutionSink sink) {
+            this.candidates = candidates;
+            this.max = max;
+            this.inventory = inventory;
+            this.sink = sink;
+        }
+
+        /**
+         * Makes the search remember which classes lead to a solution for up to 'entries' subproblems.
+         * @param entries the most subproblems to remember
+         */
+        public void remember(int entries) {
+            cache = new LinkedHashMap<State, int[]>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<State, int[]> eldest) {
+                    return size() > entries;
+                }
+            };
+        }
+
+        /**
+         * Finds every solution that starts with the given classes.
+         * @param prefix the candidate classes already chosen
+         * @param count the number of classes in prefix to use
+         * Pre: inventory holds the letters left after the prefix classes are taken out.
+         */
+        public void run(int[] prefix, int count) {
+            //every word uses at least one letter, so a solution never has more words than letters
+            int length = count + ((max == 0) ? inventory.size() : Math.max(0, max - count));
+            chosen = new int[length];
+            solution = new String[length];
+            System.arraycopy(prefix, 0, chosen, 0, count);
+            if (cache == null) {
+                print(count);
+            } else {
+                found = new int[length][];
+                foundCount = new int[length];
+                int budget = (max == 0) ? inventory.size() : max - count;
+                remembered(budget, count);
+            }
+        }
+
+        /**
+         * This is the main print method where all of the recursive backtracking happens.
+         * This method keeps going until all possible solutions have been found and the
+         * inventory is empty.
+         * @param count the number of classes in the current solution
+         * Pre: inventory holds the letters that are not used by the first 'count' classes of chosen.
+         * Post: every solution starting with those classes has been passed to the sink, and
+         *       inventory is the same as before the call.
+         */
+        private void print(int count) {
+            //recursive backtracking
+            if (inventory.isEmpty()) {
+                //base case
+                expand(0, count);
+            } else if (count < max || max == 0) {
+                //recursive case
+                LetterInventory[] inventories = candidates.inventories;
+                for (int i = 0; i < inventories.length; i++) {
+                    //the class is only taken out of the inventory if all of its letters are there
+                    if (inventory.subtractInPlace(inventories[i])) {
+                        chosen[count] = i;
+                        print(count + 1);
+                        inventory.addInPlace(inventories[i]);
+                    }
                 }
             }
-            System.out.print("]");
-            System.out.println();
-        } else if (solutionList.size() < max || max == 0) {
-            //recursive case
-            for (int i = 0; i < dict.size(); i++) {
-                String word = dict.get(i);
-                LetterInventory dictWord = map.get(word);
-                LetterInventory nextInventory = inventory.subtract(dictWord);
-                //as long as the inventory still has something in it,
-                //the recursive method is called again to search for more solutions.
-                if (nextInventory != null) {
-                    solutionList.add(word);
-                    print(text, max, nextInventory, dict, solutionList);
-                    solutionList.remove(solutionList.size() - 1);
+        }
+
+        /**
+         * The same backtracking as print(), but a subproblem that is in the cache only
+         * tries the classes that led to a solution last time, and one that is not is
+         * searched in full and added to the cache.
+         * @param budget the most classes that may still be added
+         * @param count the number of classes in the current solution
+         * @return returns true if a solution was found
+         * Post: inventory is the same as before the call.
+         */
+        private boolean remembered(int budget, int count) {
+            if (inventory.isEmpty()) {
+                expand(0, count);
+                return true;
+            }
+            budget = Math.min(budget, inventory.size());
+            if (budget == 0) return false;
+            LetterInventory[] inventories = candidates.inventories;
+            int[] known = cache.get(new State(inventory, budget));
+            if (known != null) {
+                for (int i : known) {
+                    inventory.subtractInPlace(inventories[i]);
+                    chosen[count] = i;
+                    remembered(budget - 1, count + 1);
+                    inventory.addInPlace(inventories[i]);
+                }
+                return known.length > 0;
+            }
+
+            if (found[count] == null) found[count] = new int[inventories.length];
+            foundCount[count] = 0;
+            for (int i = 0; i < inventories.length; i++) {
+                if (inventory.subtractInPlace(inventories[i])) {
+                    chosen[count] = i;
+                    boolean solved = remembered(budget - 1, count + 1);
+                    inventory.addInPlace(inventories[i]);
+                    if (solved) found[count][foundCount[count]++] = i;
+                }
+            }
+            //the key keeps its own copy, since the search keeps changing the inventory
+            cache.put(new State(inventory.copy(), budget), Arrays.copyOf(found[count], foundCount[count]));
+            return foundCount[count] > 0;
+        }
+
+        //passes on every way of picking one word from each chosen class
+        private void expand(int position, int count) {
+            if (position == count) {
+                sink.accept(solution, count);
+            } else {
+                for (String word : candidates.words[chosen[position]]) {
+                    solution[position] = word;
+                    expand(position + 1, count);
+                }
+            }
+        }
+    }
+
+    /**
+     * The same backtracking as Search, turned inside out so it can stop after any
+     * solution. The recursion is replaced by arrays that hold, for every level, the
+     * class that was chosen and the next class to try, so the search can pick up
+     * where it left off each time another solution is asked for. The words of the
+     * chosen classes are counted through like an odometer, last word fastest.
+     */
+    private class SolutionIterator implements Iterator<List<String>> {
+        //how many search steps are taken between looks at the clock
+        private static final int CLOCK_STEPS = 1024;
+
+        private final Candidates candidates;
+        private final LetterInventory inventory;
+        private final int maxDepth;
+        private final long deadline;
+
+        private final int[] chosen;
+        private final int[] tried;
+        private final int[] pick;
+        private int depth;
+        private boolean expanding;
+        private boolean finished;
+        private List<String> next;
+        private int steps;
+
+        /**
+         * @param text this is the word/phrase that is being used to find anagrams of
+         * @param max this is the max number of words in each solution, or 0 for no limit
+         * @param deadline the System.nanoTime() at which to stop, or Long.MAX_VALUE for never
+         */
+        public SolutionIterator(String text, int max, long deadline) {
+            if (max < 0) throw new IllegalArgumentException("Max is less than 0. That seems like your fault.");
+            inventory = new LetterInventory(text);
+            candidates = pruned(inventory);
+            //every word uses at least one letter, so a solution never has more words than letters
+            maxDepth = (max == 0) ? inventory.size() : Math.min(max, inventory.size());
+            this.deadline = deadline;
+            chosen = new int[maxDepth + 1];
+            tried = new int[maxDepth + 1];
+            pick = new int[maxDepth + 1];
+            //an empty phrase has one solution, the one with no words
+            expanding = inventory.isEmpty();
+            if (expanding) next = new ArrayList<>();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !finished) next = advance();
+            return next != null;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<String> solution = next;
+            next = null;
+            return solution;
+        }
+
+        //moves the search on to the next solution, or returns null if there are no more
+        private List<String> advance() {
+            if (timedOut()) return null;
+            if (expanding) {
+                if (nextPick()) return solution();
+                expanding = false;
+                if (!pop()) return null;
+            }
+            LetterInventory[] inventories = candidates.inventories;
+            while (!timedOut()) {
+                boolean pushed = false;
+                if (depth < maxDepth) {
+                    for (int i = tried[depth]; i < inventories.length && !pushed; i++) {
+                        if (inventory.subtractInPlace(inventories[i])) {
+                            chosen[depth] = i;
+                            tried[depth] = i + 1;
+                            depth++;
+                            tried[depth] = 0;
+                            pushed = true;
+                        }
+                    }
+                }
+                if (!pushed) {
+                    if (!pop()) return null;
+                } else if (inventory.isEmpty()) {
+                    expanding = true;
+                    Arrays.fill(pick, 0, depth, 0);
+                    return solution();
                 }
             }
+            return null;
+        }
+
+        //counts a search step, looking at the clock every CLOCK_STEPS of them
+        private boolean timedOut() {
+            if (deadline == Long.MAX_VALUE || ++steps < CLOCK_STEPS) return false;
+            steps = 0;
+            if (System.nanoTime() - deadline < 0) return false;
+            finished = true;
+            return true;
+        }
+
+        //goes back up one level, returning false when the whole search is done
+        private boolean pop() {
+            if (depth == 0) {
+                finished = true;
+                return false;
+            }
+            depth--;
+            inventory.addInPlace(candidates.inventories[chosen[depth]]);
+            return true;
+        }
+
+        //moves the odometer on to the next choice of words, returning false once it rolls over
+        private boolean nextPick() {
+            for (int position = depth - 1; position >= 0; position--) {
+                if (++pick[position] < candidates.words[chosen[position]].length) return true;
+                pick[position] = 0;
+            }
+            return false;
+        }
+
+        private List<String> solution() {
+            List<String> solution = new ArrayList<>(depth);
+            for (int position = 0; position < depth; position++) {
+                solution.add(candidates.words[chosen[position]][pick[position]]);
+            }
+            return solution;
         }
     }
+
     /**
-     * Simple method to eliminate words that possess no anagrams.
-     * @param dict takes in the original dictionary given by the user.
-     * @param text takes in the word/phrase to search for given by the user.
-     * @return returns a pruned version of the dictionary to improve search
-     *          time by the recursive backtracking print() method.
-     * Pre: dict contains all of the words from the user chosen dictionary file.
-     *      Text contains the word or phrase given by the user.
-     * Post: Both dict and text are the same, but a new dictionary called 'prunedDict'
-     *      has been populated with words that could contain anagrams.
+     * One piece of the parallel search. The top levels of the search tree are split
+     * into one task per anagram class, each with its own copy of the inventory; below that
+     * a task runs an ordinary Search on its own. When solutions are collected each
+     * task keeps its own, and they are gathered in task order afterwards so the
+     * result is in the same order as the sequential search.
      */
-    private List<String> pruned(List<String> dict, String text) {
-        LetterInventory txt = new LetterInventory(text);
-        List<String> prunedDict = new Stack<>();
-        for (String word : dict) {
-            if (prunedHelper(txt, word)) {
-                prunedDict.add(word);
+    private static class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        //levels of the search tree that are split into separate tasks
+        private static final int SPLIT_DEPTH = 2;
+
+        //inventories with fewer letters than this are not worth splitting
+        private static final int MIN_SPLIT_LETTERS = 8;
+
+        private final Candidates candidates;
+        private final int max;
+        private final LetterInventory inventory;
+        private final int[] prefix;
+        private final boolean collect;
+
+        private List<SearchTask> children;
+        private ListSink results;
+
+        public SearchTask(Candidates candidates, int max, LetterInventory inventory, int[] prefix,
+                          boolean collect) {
+            this.candidates = candidates;
+            this.max = max;
+            this.inventory = inventory;
+            this.prefix = prefix;
+            this.collect = collect;
+        }
+
+        @Override
+        protected void compute() {
+            int count = prefix.length;
+            boolean canGrow = !inventory.isEmpty() && (count < max || max == 0);
+            if (canGrow && count < SPLIT_DEPTH && inventory.size() >= MIN_SPLIT_LETTERS) {
+                children = new ArrayList<>();
+                LetterInventory[] inventories = candidates.inventories;
+                for (int i = 0; i < inventories.length; i++) {
+                    if (inventory.contains(inventories[i])) {
+                        LetterInventory next = inventory.subtract(inventories[i]);
+                        int[] nextPrefix = Arrays.copyOf(prefix, count + 1);
+                        nextPrefix[count] = i;
+                        children.add(new SearchTask(candidates, max, next, nextPrefix, collect));
+                    }
+                }
+                invokeAll(children);
+            } else {
+                SolutionSink sink;
+                if (collect) {
+                    results = new ListSink();
+                    sink = results;
+                } else {
+                    sink = new PrintSink();
+                }
+                new Search(candidates, max, inventory, sink).run(prefix, count);
+            }
+        }
+
+        //adds the solutions of this task and its children to 'out', in search order
+        public void collect(List<List<String>> out) {
+            if (children != null) {
+                for (SearchTask child : children) {
+                    child.collect(out);
+                }
+            } else if (results != null) {
+                out.addAll(results.solutions);
             }
         }
-        //returns a new dictionary with less words than the original dictionary
-        //this makes the recursive calls faster than they would be otherwise
-        return prunedDict;
     }
+
     /**
-     * Simple helper method for pruned, to help decide whether or not to add
-     * a new word to the pruned version of the dictionary.
+     * Simple method to eliminate anagram classes that cannot be part of a solution.
+     * The index walks its letter trie, so only classes that share a prefix with
+     * something in txt are ever looked at.
      * @param txt a letter inventory made from the user given phrase/word
-     * @param word a string that represents a word from the dictionary.
-     *            It is compared against the user given word/phrase to check
-     *             for similarities.
-     * @return returns true or false to decide whether the word contains possible
-     * anagrams. If the word contains possible anagrams, the method returns true.
-     */
-    private boolean prunedHelper(LetterInventory txt, String word) {
-        LetterInventory wrd = new LetterInventory(word);
-        LetterInventory temp = txt.subtract(wrd);
-        return temp != null;
+     * @return returns the classes whose letters are all in txt, in index order,
+     *          to improve search time by the recursive backtracking print() method.
+     * Post: txt is unchanged.
+     */
+    private Candidates pruned(LetterInventory txt) {
+        int[] kept = index.classesWithin(txt);
+        //returns a new dictionary with less classes than the original dictionary
+        //this makes the recursive calls faster than they would be otherwise
+        String[][] words = new String[kept.length][];
+        LetterInventory[] inventories = new LetterInventory[kept.length];
+        for (int i = 0; i < kept.length; i++) {
+            words[i] = index.wordArray(kept[i]);
+            inventories[i] = index.inventory(kept[i]);
+        }
+        return new Candidates(words, inventories);
     }
 }
@@ -1,5 +1,3 @@
-import java.lang.reflect.Array;
-
 /**
  * Robert Moseley
  * Dr. Han
@@ -11,20 +9,46 @@ import java.lang.reflect.Array;
  * letters/words/phrases that are being considered by the Anagram class. This class
  * can do things like initialize a new inventory, add two inventories together,
  * convert the inventory to a string representation, etc.
+ *
+ * The counts are packed 4 bits per letter into two longs: 'a' through 'm'
+ * in the low word and 'n' through 'z' in the high word. That lets subtract,
+ * add and the "is every letter there" test work on all 13 letters of a word
+ * at once with a few long operations (SWAR) instead of looping over 26 ints.
+ * The total number of letters is kept up to date so size() and isEmpty() are
+ * free. If any count goes over 15 the inventory falls back to a plain int
+ * array until every count fits in 4 bits again.
  */
+import java.util.Arrays;
+
 public class LetterInventory {
 
     //class constant for the size of the inventory
     public final int ALPHABETSIZE = 26;
 
-    //inventory is public so that the necessary methods can access it
-    public int[] inventory;
+    //letters in each packed word, and the largest count a packed letter can hold
+    private static final int LETTERS_PER_WORD = 13;
+    private static final int MAX_PACKED = 15;
+
+    //the even numbered counts of a word (and, shifted down 4 bits, the odd ones)
+    //each sit alone in a byte; the guard bit above each of them catches borrows and carries
+    private static final long EVEN = 0x000F0F0F0F0F0F0FL;
+    private static final long GUARD = 0x0010101010101010L;
+
+    //packed counts for 'a'-'m' and 'n'-'z', only meaningful while packed is true
+    private long low;
+    private long high;
+    private boolean packed = true;
+
+    //the plain counts while packed is false; kept afterwards so switching back does not allocate
+    private int[] counts;
+
+    //total number of letters
+    private int size;
 
     /**
      * Constructor: Initializes an empty inventory when not provided with any data.
      */
     public LetterInventory() {
-        inventory = new int[ALPHABETSIZE];
     }
 
     /**
@@ -35,15 +59,16 @@ public class LetterInventory {
      *             counts.
      */
     public LetterInventory(String data) {
-        inventory = new int[ALPHABETSIZE];
+        int[] letters = new int[ALPHABETSIZE];
         for (int i = 0; i < data.length(); i++) {
-            int count = data.charAt(i);
-            if (count > 96 && count < 124) {
-                inventory[count - 97]++;
-            } else if (count > 64 && count < 91) {
-                inventory[count - 65]++;
+            char c = data.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                letters[c - 'a']++;
+            } else if (c >= 'A' && c <= 'Z') {
+                letters[c - 'A']++;
             }
         }
+        load(letters);
     }
 
     /**
@@ -52,10 +77,7 @@ public class LetterInventory {
      * @return returns the number of times the letter is counted by the inventory.
      */
     public int get(char letter) {
-        if (!(letter > 64 && letter < 91) && !(letter > 96 && letter < 124)) throw new IllegalArgumentException();
-        if (letter > 96 && letter < 124) letter -= 97;
-        if (letter > 64 && letter < 91) letter -= 65;
-        return inventory[letter];
+        return count(index(letter));
     }
 
     /**
@@ -65,24 +87,30 @@ public class LetterInventory {
      * @param value the value associated with a specific character in the inventory.
      */
     public void set(char letter, int value) {
-        if ((!(letter > 64 && letter < 91) && !(letter > 96 && letter < 124)) || value < 0)
-            throw new IllegalArgumentException();
-
-        if (letter > 96 && letter < 124) letter -= 97;
-        if (letter > 64 && letter < 91) letter -= 65;
-        inventory[letter] = value;
+        int index = index(letter);
+        if (value < 0) throw new IllegalArgumentException();
+        size += value - count(index);
+        if (packed && value <= MAX_PACKED) {
+            int shift = shift(index);
+            if (index < LETTERS_PER_WORD) {
+                low = (low & ~(0xFL << shift)) | ((long) value << shift);
+            } else {
+                high = (high & ~(0xFL << shift)) | ((long) value << shift);
+            }
+        } else {
+            if (packed) unpack();
+            counts[index] = value;
+            repack();
+        }
     }
 
     /**
-     * This method simply tallies the total of every value in the inventory array.
+     * Returns the total of every value in the inventory, which is kept up to date
+     * as the inventory changes.
      * @return returns the total value of the letters in the inventory.
      */
     public int size() {
-        int total = 0;
-        for (int i = 0; i < inventory.length; i++) {
-            total += inventory[i];
-        }
-        return total;
+        return size;
     }
 
     /**
@@ -90,10 +118,7 @@ public class LetterInventory {
      * @return returns true or false depending on whether the inventory is empty.
      */
     public boolean isEmpty() {
-        for (int i = 0; i < inventory.length; i++) {
-            if (inventory[i] != 0) return false;
-        }
-        return true;
+        return size == 0;
     }
 
     /**
@@ -102,14 +127,22 @@ public class LetterInventory {
      * @return returns a string representation of the inventory array.
      */
     public String toString() {
-        StringBuilder inventoryString = new StringBuilder("[");
-        for (int i = 0; i < inventory.length; i++) {
-            for (int j = 0; j < inventory[i]; j++) {
-                inventoryString.append((char) (i + 97));
+        return "[" + signature() + "]";
+    }
+
+    /**
+     * Lists the letters of the inventory in alphabetical order, in lower case.
+     * Two words are anagrams of each other exactly when their signatures are equal.
+     * @return returns the sorted letters, without brackets.
+     */
+    public String signature() {
+        StringBuilder letters = new StringBuilder(size);
+        for (int i = 0; i < ALPHABETSIZE; i++) {
+            for (int j = count(i); j > 0; j--) {
+                letters.append((char) ('a' + i));
             }
         }
-        inventoryString.append("]");
-        return inventoryString.toString();
+        return letters.toString();
     }
 
     /**
@@ -118,30 +151,121 @@ public class LetterInventory {
      * @return returns an entirely new Inventory object to be used by main().
      */
     public LetterInventory add(LetterInventory other) {
-        LetterInventory temp = new LetterInventory();
-        temp.inventory = inventory.clone();
-//        temp.inventory = this.inventory;
-        for (int i = 0; i < inventory.length; i++) {
-            temp.inventory[i] += other.inventory[i];
-        }
-        LetterInventory sum = temp;
+        LetterInventory sum = copy();
+        sum.addInPlace(other);
         return sum;
     }
 
     /**
      * Subtracts two different inventories from each other and returns an entirely new inventory object.
      * @param other a LetterInventory object that is used to subtract from another inventory
-     * @return returns an entirely new Inventory object to be used by main().
+     * @return returns an entirely new Inventory object to be used by main(), or null if
+     * other has letters that this inventory does not.
      */
     public LetterInventory subtract(LetterInventory other) {
-        LetterInventory temp = new LetterInventory();
-        temp.inventory = inventory.clone();
-        for (int i = 0; i < inventory.length; i++) {
-            temp.inventory[i] -= other.inventory[i];
-            if (other.inventory[i] < 0 || temp.inventory[i] < 0) return null;
+        if (!contains(other)) return null;
+        LetterInventory difference = copy();
+        difference.subtractInPlace(other);
+        return difference;
+    }
+
+    /**
+     * Makes an independent copy of this inventory.
+     * @return returns a new inventory with the same counts.
+     */
+    public LetterInventory copy() {
+        LetterInventory copy = new LetterInventory();
+        copy.low = low;
+        copy.high = high;
+        copy.packed = packed;
+        copy.size = size;
+        if (!packed) copy.counts = counts.clone();
+        return copy;
+    }
+
+    /**
+     * Checks whether every letter of another inventory is also in this one,
+     * as many times or more, without creating any new inventories.
+     * @param other a LetterInventory object that is compared against this inventory
+     * @return returns true if other could be subtracted from this inventory.
+     */
+    public boolean contains(LetterInventory other) {
+        if (other.size > size) return false;
+        if (packed && other.packed) return covers(low, other.low) && covers(high, other.high);
+        //an unpacked inventory has a count over 15, which a packed one can never cover
+        if (packed) return false;
+        for (int i = 0; i < ALPHABETSIZE; i++) {
+            if (other.count(i) > counts[i]) return false;
         }
-        LetterInventory sum = temp;
-        return sum;
+        return true;
+    }
+
+    /**
+     * Subtracts another inventory from this one in place. Nothing is changed
+     * unless the whole subtraction succeeds, so a failed call costs no more
+     * than a call to contains().
+     * @param other a LetterInventory object that is subtracted from this inventory
+     * @return returns true if the letters were subtracted, false if this inventory
+     * does not contain them.
+     */
+    public boolean subtractInPlace(LetterInventory other) {
+        if (!contains(other)) return false;
+        if (packed) {
+            //no count can borrow from its neighbor, so plain subtraction works on every letter at once
+            low -= other.low;
+            high -= other.high;
+        } else {
+            for (int i = 0; i < ALPHABETSIZE; i++) {
+                counts[i] -= other.count(i);
+            }
+            repack();
+        }
+        size -= other.size;
+        return true;
+    }
+
+    /**
+     * Adds another inventory to this one in place. This undoes a successful
+     * subtractInPlace() with the same inventory.
+     * @param other a LetterInventory object that is added to this inventory
+     */
+    public void addInPlace(LetterInventory other) {
+        if (packed && other.packed && !carries(low, other.low) && !carries(high, other.high)) {
+            low += other.low;
+            high += other.high;
+        } else {
+            if (packed) unpack();
+            for (int i = 0; i < ALPHABETSIZE; i++) {
+                counts[i] += other.count(i);
+            }
+            repack();
+        }
+        size += other.size;
+    }
+
+    /**
+     * Two inventories are equal when they hold the same count of every letter.
+     * @param o the object compared against this inventory
+     * @return returns true if o is a LetterInventory with the same counts.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LetterInventory)) return false;
+        LetterInventory other = (LetterInventory) o;
+        //an inventory is packed exactly when every count fits, so equal inventories are packed alike
+        if (size != other.size || packed != other.packed) return false;
+        if (packed) return low == other.low && high == other.high;
+        return Arrays.equals(counts, other.counts);
+    }
+
+    /**
+     * @return returns a hash code made from the letter counts, consistent with equals().
+     */
+    @Override
+    public int hashCode() {
+        if (!packed) return Arrays.hashCode(counts);
+        return Long.hashCode(low * 0x9E3779B97F4A7C15L + high);
     }
 
     /**
@@ -151,21 +275,79 @@ public class LetterInventory {
      * charater occupies in the given inventory.
      */
     public double getLetterPercentage(char letter) {
-        if (letter > 96 && letter < 124) {
-            letter -= 97;
-        } else if (letter > 64 && letter < 91) {
-            letter -= 65;
-        } else {
+        if (!(letter >= 'a' && letter <= 'z') && !(letter >= 'A' && letter <= 'Z')) {
             throw new IllegalArgumentException("Incorrect character.");
         }
-        if (inventory.length == 0) return 0;
+        if (size == 0) return 0;
+        return get(letter) / (size / 1.0);
+    }
+
+    //true if every 4 bit count in a is at least the matching count in b
+    private static boolean covers(long a, long b) {
+        long even = ((a & EVEN) | GUARD) - (b & EVEN);
+        long odd = (((a >>> 4) & EVEN) | GUARD) - ((b >>> 4) & EVEN);
+        return (even & odd & GUARD) == GUARD;
+    }
+
+    //true if adding the counts in a and b would push some letter past 15
+    private static boolean carries(long a, long b) {
+        long even = (a & EVEN) + (b & EVEN);
+        long odd = ((a >>> 4) & EVEN) + ((b >>> 4) & EVEN);
+        return ((even | odd) & GUARD) != 0;
+    }
+
+    //turns a letter into its position in the alphabet
+    private static int index(char letter) {
+        if (letter >= 'a' && letter <= 'z') return letter - 'a';
+        if (letter >= 'A' && letter <= 'Z') return letter - 'A';
+        throw new IllegalArgumentException();
+    }
+
+    //where a letter's count sits in its packed word
+    private static int shift(int index) {
+        return 4 * (index % LETTERS_PER_WORD);
+    }
 
-        int total = 0;
-        int letterVal = inventory[letter];
-        double percentage = 0;
-        for (int i = 0; i < inventory.length; i++) {
-            total += inventory[i];
+    private int count(int index) {
+        if (!packed) return counts[index];
+        long word = (index < LETTERS_PER_WORD) ? low : high;
+        return (int) ((word >>> shift(index)) & 0xF);
+    }
+
+    //sets every count (and the size) from an array of counts
+    private void load(int[] letters) {
+        counts = letters;
+        packed = false;
+        size = 0;
+        for (int letter : letters) {
+            size += letter;
+        }
+        repack();
+    }
+
+    //copies the packed counts into the counts array
+    private void unpack() {
+        if (counts == null) counts = new int[ALPHABETSIZE];
+        for (int i = 0; i < ALPHABETSIZE; i++) {
+            counts[i] = count(i);
+        }
+        packed = false;
+    }
+
+    //goes back to the packed counts if every count fits in 4 bits
+    private void repack() {
+        long newLow = 0;
+        long newHigh = 0;
+        for (int i = 0; i < ALPHABETSIZE; i++) {
+            if (counts[i] > MAX_PACKED) return;
+            if (i < LETTERS_PER_WORD) {
+                newLow |= (long) counts[i] << shift(i);
+            } else {
+                newHigh |= (long) counts[i] << shift(i);
+            }
         }
-        return letterVal / (total / 1.0);
+        low = newLow;
+        high = newHigh;
+        packed = true;
     }
 }
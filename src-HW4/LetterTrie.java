@@ -0,0 +1,111 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227 Data Structures
+ * 2/26/2020
+ *
+ * Class description: A trie over anagram class signatures (the sorted
+ * letters of a word). Each node has one slot per letter of the alphabet,
+ * and the nodes are stored in flat int arrays rather than as objects, so
+ * following a letter is a single array read. Because signatures are sorted,
+ * classes that share their smallest letters share a path from the root, and
+ * finding every class that fits in a set of letters only has to look at the
+ * part of the trie those letters can reach: as soon as a letter runs out,
+ * the whole subtree below it is skipped.
+ */
+import java.util.Arrays;
+
+class LetterTrie {
+
+    private static final int LETTERS = 26;
+
+    //children[node * LETTERS + letter] is the node reached by that letter, or 0 for none
+    //(0 is the root, which is never anyone's child)
+    private int[] children;
+
+    //the class whose signature ends at each node, or -1
+    private int[] terminal;
+
+    private int nodes;
+
+    /**
+     * Creates a trie that holds only the root.
+     */
+    public LetterTrie() {
+        children = new int[16 * LETTERS];
+        terminal = new int[16];
+        Arrays.fill(terminal, -1);
+        nodes = 1;
+    }
+
+    /**
+     * Adds a signature to the trie.
+     * @param signature sorted lower case letters
+     * @param id the number of the class with that signature
+     */
+    public void add(String signature, int id) {
+        int node = 0;
+        for (int i = 0; i < signature.length(); i++) {
+            int letter = signature.charAt(i) - 'a';
+            if (letter < 0 || letter >= LETTERS) throw new IllegalArgumentException("Not a signature: " + signature);
+            int slot = node * LETTERS + letter;
+            if (children[slot] == 0) {
+                //newNode() may replace the array, so it has to run before children is read
+                int child = newNode();
+                children[slot] = child;
+            }
+            node = children[slot];
+        }
+        terminal[node] = id;
+    }
+
+    /**
+     * Finds every class whose letters are all in the given counts.
+     * @param counts the number of each letter that is available; changed during the search but restored afterwards
+     * @return returns the ids of those classes in increasing order, leaving out a class with no letters.
+     */
+    public int[] within(int[] counts) {
+        Ids found = new Ids();
+        collect(0, 0, counts, found);
+        int[] ids = Arrays.copyOf(found.ids, found.size);
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    //adds the classes below 'node' to found. Signatures are sorted, so the children
+    //of a node that was reached by the letter 'from' never use an earlier letter
+    private void collect(int node, int from, int[] counts, Ids found) {
+        int base = node * LETTERS;
+        for (int letter = from; letter < LETTERS; letter++) {
+            int child = children[base + letter];
+            if (child != 0 && counts[letter] > 0) {
+                counts[letter]--;
+                if (terminal[child] >= 0) found.add(terminal[child]);
+                collect(child, letter, counts, found);
+                counts[letter]++;
+            }
+        }
+    }
+
+    private int newNode() {
+        if (nodes == terminal.length) {
+            children = Arrays.copyOf(children, children.length * 2);
+            terminal = Arrays.copyOf(terminal, terminal.length * 2);
+            Arrays.fill(terminal, nodes, terminal.length, -1);
+        }
+        return nodes++;
+    }
+
+    /**
+     * A growable list of ints, so collecting ids does not box them.
+     */
+    private static class Ids {
+        private int[] ids = new int[16];
+        private int size;
+
+        public void add(int id) {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+    }
+}
@@ -12,36 +12,113 @@
  * about a question or answer for that game. The game accepts a file
  * of strings which it uses to generate the tree for each game.
  *
+ * The nodes are numbered and kept in parallel arrays: the index of each
+ * node's left and right child (-1 for an answer), and the index of its
+ * text in a pool of strings, so text that appears more than once is only
+ * stored once. The tree is walked with loops and an explicit stack instead
+ * of recursion, so trees of any depth can be read, saved and played.
+ * Besides the Q:/A: text files, a tree can be saved in a binary file that
+ * is loaded with one read of the whole file.
+ *
+ * Many players can share one tree through sessions. Nodes are never changed
+ * once other players can see them: learning a new object copies the nodes on
+ * the path from the root down to the answer that was wrong, and the copy's
+ * root is published all at once. A session keeps playing on the tree it
+ * started with, so reading the tree never waits for anything; only players
+ * who are teaching the game a new object take turns.
+ *
+ * Every object learned leaves the old copies of the questions above it
+ * behind, so a game that learns for a long time would keep growing. Once
+ * more than half of the nodes can't be reached anymore, the nodes of the
+ * newest tree are copied into new arrays and the old ones are dropped when
+ * the sessions still playing on them are done. A session that was playing
+ * during one of these can still teach the game its object, but not one
+ * that was playing during two; games that end on the old arrays after a
+ * copy are not counted.
+ *
+ * The game counts how many games reach each answer, and averageQuestions()
+ * reports how many questions the games took. The counts can't be used to
+ * reorder the questions: an object's answer is only known for the questions
+ * on its path, so every object needs every question above it, and the tree
+ * already asks each object no more than it has to.
+ *
+ * Instead of saving the whole tree every time it learns, a game can keep a
+ * journal next to a binary snapshot of the tree. Each object learned adds
+ * one small record to the end of the journal: the answers that lead to the
+ * answer that was replaced, the new question and object, and which side the
+ * object went on. Once the journal is bigger than the snapshot, a new
+ * snapshot is written and the journal starts over. recover() loads the
+ * snapshot and learns the objects in the journal again.
  */
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
 
 public class QuestionsGame {
-    // Your code here
-    private QuestionNode root;
 
-    /**
-     * Question node class responsible for managing the data fields
-     * of each question node.
-     */
-    private static class QuestionNode {
-        // Your code here
+    //the first bytes of a binary file, "QGME", and the version of its format
+    private static final int MAGIC = 0x51474D45;
+    //version 2 added the number of games that reached each node
+    private static final int VERSION = 2;
 
-        private String question;
-        private QuestionNode left;
-        private QuestionNode right;
+    //the first bytes of a journal, "QGJL", its version, and the size of its header
+    private static final int JOURNAL_MAGIC = 0x51474A4C;
+    private static final int JOURNAL_VERSION = 1;
+    private static final int JOURNAL_HEADER = 24;
 
-        public QuestionNode(String question) {
-            this.question = question;
-        }
+    //a journal smaller than this is never compacted, even if the snapshot is smaller
+    private static final long MIN_JOURNAL_BYTES = 1 << 16;
 
-        public QuestionNode(String question, QuestionNode left, QuestionNode right) {
-            this.question = question;
-            this.left = left;
-            this.right = right;
-        }
-     }
+    //the child index of an answer node
+    private static final int NONE = -1;
+
+    //the nodes are never copied to new arrays while there are fewer than this
+    private static final int MIN_COMPACT_NODES = 1 << 12;
+
+    //the tree players see; it is replaced, never changed, when the game learns
+    private final AtomicReference<Tree> current = new AtomicReference<>();
+
+    //where the nodes are kept. Nodes are only added, by one thread at a time,
+    //and a node never changes once a published tree can reach it
+    private int size = 0;
+    private int[] left = new int[16];
+    private int[] right = new int[16];
+    private int[] text = new int[16];
+
+    //the number of games that reached each answer
+    private Counters visits = new Counters();
+
+    //how many nodes no tree published since the last copy can reach
+    private int dead = 0;
+
+    //how many times the nodes have been copied to new arrays, and where the
+    //last copy moved each node to (-1 if it was left behind)
+    private int generation = 0;
+    private int[] moved;
+
+    //the text of the nodes; 'poolIndex' finds a string's index, and is only made
+    //once a string has to be added
+    private String[] pool = new String[16];
+    private int poolSize = 0;
+    private Map<String, Integer> poolIndex;
+
+    //where objects are written as they are learned, or null; only used while
+    //holding the lock
+    private Journal journal;
 
     /**
      * constructor for creation a single node object
@@ -50,8 +127,7 @@ public class QuestionsGame {
      * Post: This string is translated into a new question node object
      */
      public QuestionsGame(String object) {
-        QuestionNode obj = new QuestionNode(object);
-        root = obj;
+        publish(newNode(object));
      }
 
     /**
@@ -61,26 +137,61 @@ public class QuestionsGame {
      */
      //nodes appear in pre-order
      public QuestionsGame(Scanner input) {
-        //should call a recursive method to build the tree
+         int root = NONE;
          while(input.hasNextLine()) {
+             size = 0;
              root = makeNodes(input);
          }
+         if (root != NONE) publish(root);
      }
 
     /**
-     * Recursive helper for producing the nodes of the BST
-     * @param input uses input from the question file to create the tree
-     * @return returns an individual node of the tree
+     * constructor for a tree that was read from a binary file
      */
-     private QuestionNode makeNodes(Scanner input) {
-        String letter = input.nextLine();
-        String q = input.nextLine();
-        QuestionNode node = new QuestionNode(q);
-        if (letter.equals("Q:")) {
-            node.left = makeNodes(input);
-            node.right = makeNodes(input);
+     private QuestionsGame(String[] pool, int[] text, int[] left, int[] right, long[] counts) {
+        this.pool = pool;
+        this.poolSize = pool.length;
+        this.text = text;
+        this.left = left;
+        this.right = right;
+        this.size = text.length;
+        visits.ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            visits.set(i, counts[i]);
         }
-        return node;
+        if (size > 0) publish(0);
+     }
+
+    /**
+     * Reads the nodes of one tree, which appear in pre-order. Each question
+     * is followed by its left subtree and then its right subtree, so a stack
+     * keeps the questions that are still waiting for a right child.
+     * @param input uses input from the question file to create the tree
+     * @return returns the index of the root of the tree
+     */
+     private int makeNodes(Scanner input) {
+        IntStack waiting = new IntStack();
+        int first = NONE;
+        int needsLeft = NONE;
+        do {
+            String letter = input.nextLine();
+            String q = input.nextLine();
+            int node = newNode(q);
+            if (first == NONE) {
+                first = node;
+            } else if (needsLeft != NONE) {
+                left[needsLeft] = node;
+            } else {
+                right[waiting.pop()] = node;
+            }
+            if (letter.equals("Q:")) {
+                waiting.push(node);
+                needsLeft = node;
+            } else {
+                needsLeft = NONE;
+            }
+        } while (needsLeft != NONE || !waiting.isEmpty());
+        return first;
      }
 
      //should write the questions to a file in the correct order
@@ -93,25 +204,232 @@ public class QuestionsGame {
      */
      public void saveQuestions(PrintStream output) {
         if (output == null) throw new IllegalArgumentException("PrintStream is null");
-        if (root == null) throw new IllegalArgumentException("The list is null! No questions!");
-        saveQuestionsHelper(root, output);
+        Tree tree = tree();
+        for (int node : tree.preOrder()) {
+            output.println(tree.isAnswer(node) ? "A:" : "Q:");
+            output.println(tree.text(node));
+        }
      }
 
     /**
-     * This is the recursive helper for saving new questions.
-     * @param node the current question node that is being processed
-     * @param output the output that is being saved to the file
+     * Saves the tree in a binary file that loadBinary() can read. The file
+     * holds the string pool and then, for each node in pre-order, the index of
+     * its text and of its right child (-1 for an answer); the left child of a
+     * question is always the node right after it. Last comes the number of
+     * games that reached each node.
+     * @param output where the tree is written; it is flushed but not closed
+     * @throws IOException if the tree cannot be written
      */
-     private void saveQuestionsHelper(QuestionNode node, PrintStream output) {
-        if (node.left != null && node.right != null) {
-            output.println("Q:");
-            output.println(node.question);
-            saveQuestionsHelper(node.left, output);
-            saveQuestionsHelper(node.right, output);
-        } else {
-            output.println("A:");
-            output.println(node.question);
+     public void saveBinary(OutputStream output) throws IOException {
+        if (output == null) throw new IllegalArgumentException("OutputStream is null");
+        write(tree(), output);
+     }
+
+    /**
+     * writes a tree in the format saveBinary() describes
+     */
+     private void write(Tree tree, OutputStream output) throws IOException {
+        int[] order = tree.preOrder();
+        int[] position = new int[tree.left.length];
+        for (int i = 0; i < order.length; i++) {
+            position[order[i]] = i;
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(tree.poolSize);
+        for (int i = 0; i < tree.poolSize; i++) {
+            byte[] bytes = tree.pool[i].getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        out.writeInt(order.length);
+        for (int node : order) {
+            out.writeInt(tree.text[node]);
+        }
+        for (int node : order) {
+            out.writeInt(tree.isAnswer(node) ? NONE : position[tree.right[node]]);
         }
+        for (int node : order) {
+            out.writeLong(tree.visits.get(node));
+        }
+        out.flush();
+     }
+
+    /**
+     * Loads a tree saved by saveBinary(). The whole file is
+     * mapped into memory and the node arrays are copied out of it in bulk.
+     * @param file the binary file to read
+     * @return returns a game that uses the tree in the file
+     * @throws IOException if the file cannot be read or is not a saved tree
+     */
+     public static QuestionsGame loadBinary(Path file) throws IOException {
+        if (file == null) throw new IllegalArgumentException("File is null");
+        return load(file, null);
+     }
+
+    /**
+     * Loads a tree saved by saveBinary(), adding the bytes of the file to
+     * 'checksum' if it isn't null.
+     */
+     private static QuestionsGame load(Path file, CRC32 checksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("File is too big: " + file);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (checksum != null) checksum.update(buffer.duplicate());
+            return read(buffer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Saved tree is cut off: " + file);
+        }
+     }
+
+    /**
+     * Saves the tree as a snapshot and starts a journal next to it. From then
+     * on every object the game learns is added to the end of the journal, so
+     * recover() can get the tree back from the two files.
+     * @param snapshot the binary file the tree is saved in
+     * @param journalFile the file the objects learned are written to; it is emptied first
+     * @throws IOException if either file cannot be written
+     */
+     public synchronized void startJournal(Path snapshot, Path journalFile) throws IOException {
+        if (snapshot == null || journalFile == null) throw new IllegalArgumentException("File is null");
+        if (journal != null) throw new IllegalStateException("The game already has a journal");
+        Tree tree = tree();
+        journal = new Journal(snapshot, journalFile);
+        try {
+            journal.compact(tree);
+        } catch (IOException e) {
+            throw journal.fail(e);
+        }
+     }
+
+    /**
+     * Loads the tree in a snapshot and learns again every object in the
+     * journal that goes with it, then keeps adding to the journal. A record
+     * that was cut off by a crash is dropped. If the journal was started for
+     * a different snapshot, a compaction was cut off after the new snapshot
+     * was saved, so the snapshot already has every object in it.
+     * @param snapshot the binary file the tree was saved in
+     * @param journalFile the journal started with the snapshot
+     * @return returns a game with the tree as it was when the journal was last written
+     * @throws IOException if the files cannot be read or do not go together
+     */
+     public static QuestionsGame recover(Path snapshot, Path journalFile) throws IOException {
+        if (snapshot == null || journalFile == null) throw new IllegalArgumentException("File is null");
+        CRC32 checksum = new CRC32();
+        QuestionsGame game = load(snapshot, checksum);
+        game.replay(snapshot, journalFile, Files.size(snapshot), checksum.getValue());
+        return game;
+     }
+
+    /**
+     * Saves the tree as a new snapshot and empties the journal.
+     * @throws IOException if the snapshot or journal cannot be written; the
+     * journal is closed
+     */
+     public synchronized void compact() throws IOException {
+        if (journal == null) throw new IllegalStateException("The game has no journal");
+        try {
+            journal.compact(tree());
+        } catch (IOException e) {
+            journal.fail(e);
+            throw e;
+        }
+     }
+
+    /**
+     * Stops writing what the game learns to the journal. The snapshot and
+     * journal can still be recovered.
+     * @throws IOException if the journal cannot be closed
+     */
+     public synchronized void closeJournal() throws IOException {
+        if (journal == null) return;
+        Journal closing = journal;
+        journal = null;
+        try {
+            closing.channel.force(true);
+        } finally {
+            closing.channel.close();
+        }
+     }
+
+    /**
+     * Opens the journal of a snapshot this game was loaded from and learns
+     * the objects in it again.
+     */
+     private synchronized void replay(Path snapshot, Path journalFile, long length, long crc) throws IOException {
+        Journal opened = new Journal(snapshot, journalFile);
+        try {
+            opened.replay(length, crc);
+        } catch (IOException | RuntimeException e) {
+            opened.channel.close();
+            throw e;
+        }
+        journal = opened;
+     }
+
+    /**
+     * Reads the tree in a binary file from a buffer holding all of it, and
+     * checks that the nodes really are a tree in pre-order.
+     */
+     private static QuestionsGame read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) throw new IOException("Not a saved question tree");
+        int version = buffer.getInt();
+        if (version < 1 || version > VERSION) throw new IOException("Unknown question tree version " + version);
+
+        String[] pool = new String[count(buffer)];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < pool.length; i++) {
+            int length = count(buffer);
+            if (length > bytes.length) bytes = new byte[Math.max(length, bytes.length * 2)];
+            buffer.get(bytes, 0, length);
+            pool[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        int nodes = count(buffer);
+        int[] text = new int[nodes];
+        int[] right = new int[nodes];
+        buffer.asIntBuffer().get(text);
+        buffer.position(buffer.position() + 4 * nodes);
+        buffer.asIntBuffer().get(right);
+        buffer.position(buffer.position() + 4 * nodes);
+        long[] counts = new long[nodes];
+        if (version >= 2) buffer.asLongBuffer().get(counts);
+
+        int[] left = new int[nodes];
+        for (int i = 0; i < nodes; i++) {
+            if (text[i] < 0 || text[i] >= pool.length) throw new IOException("Bad text index at node " + i);
+            left[i] = (right[i] == NONE) ? NONE : i + 1;
+        }
+
+        //walking the tree has to visit the nodes in the order they were stored
+        IntStack stack = new IntStack();
+        int next = 0;
+        if (nodes > 0) stack.push(0);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node != next) throw new IOException("Nodes are not a tree in pre-order at node " + next);
+            next++;
+            if (right[node] != NONE) {
+                if (right[node] <= node + 1 || right[node] >= nodes || node + 1 >= nodes) {
+                    throw new IOException("Bad child index at node " + node);
+                }
+                stack.push(right[node]);
+                stack.push(left[node]);
+            }
+        }
+        if (next != nodes) throw new IOException("Saved tree has " + (nodes - next) + " extra nodes");
+        return new QuestionsGame(pool, text, left, right, counts);
+     }
+
+    /**
+     * reads a count or length, which can't be negative
+     */
+     private static int count(ByteBuffer buffer) throws IOException {
+        int count = buffer.getInt();
+        if (count < 0 || count > buffer.remaining()) throw new IOException("Bad count in saved tree: " + count);
+        return count;
      }
 
     /**
@@ -122,42 +440,28 @@ public class QuestionsGame {
      * @param input this is the scanner that allows the program to process user input
      */
      public void play(Scanner input) {
+        Session session = newSession();
 
-        //sets the current node equal to the root of the tree
-        QuestionNode current = root;
-        QuestionNode previous = current;
-        boolean branch = false;
-
-        //prepares fields for userInput and a final answer field
+        //prepares a field for userInput
         String userInput;
-        String answer = root.question;
 
         //while the branch can still be explored, explore
-        while (current.left != null && current.right != null) {
+        while (!session.isGuess()) {
 
             //print out the current question
-            System.out.print(current.question + " (y/n)? ");
+            System.out.print(session.getText() + " (y/n)? ");
 
             //get an answer to the question, without extra spaces and to lowercase
             userInput = input.nextLine().trim().toLowerCase();
 
             //if user input starts with y, go left
             //else, go right
-            if ((current.right.right == null) || current.left.left == null) previous = current;
-            if (userInput.charAt(0) == 'y') {
-                current = current.left;
-                branch = true;
-            } else {
-                current = current.right;
-                branch = false;
-            }
-
-            //answer is set equal to the current answer node.
-            //it is determined to be an answer node because
-            //the right and left of the node are null
-            answer = current.question;
+            session.answer(userInput.charAt(0) == 'y');
         }
 
+        //the answer is the current node, because it has no children
+        String answer = session.getText();
+
         //guesses the answer, because it is the last node
         System.out.println("I guess that your object is " + answer + "!");
         System.out.print("Am I right? (y/n)? ");
@@ -191,32 +495,641 @@ public class QuestionsGame {
             //if the answer is yes to the question, put new object on left node,
             //otherwise put it on the right with the original answer on the left
             String newQuestionAns = input.nextLine().trim().toLowerCase();
+            try {
+                session.learn(newObj, newQuestion, newQuestionAns.charAt(0) == 'y');
+            } catch (StaleSessionException e) {
+                //other players taught the game so much while we played that our answers were lost
+                System.out.println("Sorry, I learned too much while we played. Please play again to teach me.");
+            }
+        }
+     }
+
+    /**
+     * Starts a session for one player. Any number of sessions can be played
+     * at the same time, from different threads, on the same game.
+     * @return returns a session at the first question of the current tree
+     */
+     public Session newSession() {
+        return new Session(tree());
+     }
 
-            //captures the current data stored by the question node
-            QuestionNode prevObj = current;
-            QuestionNode objNode = new QuestionNode(newObj);
+    /**
+     * Teaches the game a new object in place of the answer a session reached.
+     * The path from the root to the answer is copied, with the answer replaced
+     * by the new question, and the copy becomes the tree every new session
+     * sees. If the tree changed since the session started, the answer is found
+     * where it is in the newest tree, since the only changes are new questions
+     * put above answers; the new question goes right above it there. If the
+     * nodes were copied to new arrays since, the answer is looked up where
+     * the copy moved it.
+     */
+     private synchronized void learn(Session session, String question, String object, boolean objectIsYes) {
+        Tree latest = current.get();
+        int leaf = session.node;
+        if (session.tree.generation != latest.generation) {
+            if (session.tree.generation != latest.generation - 1 || moved[leaf] == NONE) {
+                throw new StaleSessionException();
+            }
+            leaf = moved[leaf];
+        }
+
+        //the questions the session answered are still in the newest tree, in the same places
+        IntStack path = new IntStack();
+        int node = latest.root;
+        for (int i = 0; i < session.path.size(); i++) {
+            if (left[node] == NONE) throw new IllegalStateException("The answer is no longer in the tree");
+            path.push(node);
+            node = session.choices.get(i) ? left[node] : right[node];
+        }
+        if (node != leaf) findBelow(node, leaf, path);
 
-            if (previous == current) {
-                if (newQuestionAns.charAt(0) == 'y') {
-                   root = new QuestionNode(newQuestion, objNode, prevObj);
-                } else {
-                    root = new QuestionNode(newQuestion, prevObj, objNode);
+        //the object is written down before anyone can see it
+        if (journal != null) journal.append(path.toArray(), leaf, question, object, objectIsYes);
+        publish(graft(path, leaf, question, object, objectIsYes));
+        if (journal != null) journal.compactIfLong();
+        compactIfMostlyDead();
+     }
+
+    /**
+     * Puts a new question in place of an answer, with the new object on one
+     * side and the answer on the other. The questions on the path down to the
+     * answer are copied; the path is emptied.
+     * @return returns the root of the copy
+     */
+     private int graft(IntStack path, int leaf, String question, String object, boolean objectIsYes) {
+        //the questions on the path are copied, and the newest tree won't reach the old ones
+        dead += path.size();
+        int newObject = newNode(intern(object));
+        int child = newNode(intern(question));
+        left[child] = objectIsYes ? newObject : leaf;
+        right[child] = objectIsYes ? leaf : newObject;
+        int replaced = leaf;
+        while (!path.isEmpty()) {
+            int parent = path.pop();
+            int copy = newNode(text[parent]);
+            left[copy] = (left[parent] == replaced) ? child : left[parent];
+            right[copy] = (right[parent] == replaced) ? child : right[parent];
+            replaced = parent;
+            child = copy;
+        }
+        return child;
+     }
+
+    /**
+     * Learns an object from the journal again, in place of the answer the
+     * given answers lead to from 'root'.
+     * @return returns the root of the new tree
+     */
+     private int relearn(int root, BitSet yes, int depth, String question, String object,
+                         boolean objectIsYes) throws IOException {
+        IntStack path = new IntStack();
+        int node = root;
+        for (int i = 0; i < depth; i++) {
+            if (left[node] == NONE) throw new IOException("Journal does not match the saved tree");
+            path.push(node);
+            node = yes.get(i) ? left[node] : right[node];
+        }
+        if (left[node] != NONE) throw new IOException("Journal does not match the saved tree");
+        return graft(path, node, question, object, objectIsYes);
+     }
+
+    /**
+     * Finds a node in the subtree under 'top', adding the nodes from 'top' down
+     * to just above it to 'path'. The subtree only holds questions that other
+     * sessions added above the answer, so it is small.
+     */
+     private void findBelow(int top, int target, IntStack path) {
+        Map<Integer, Integer> parents = new HashMap<>();
+        IntStack stack = new IntStack();
+        stack.push(top);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            if (node == target) {
+                IntStack above = new IntStack();
+                for (int n = node; n != top; ) {
+                    n = parents.get(n);
+                    above.push(n);
+                }
+                while (!above.isEmpty()) {
+                    path.push(above.pop());
                 }
+                return;
+            }
+            if (left[node] != NONE) {
+                parents.put(left[node], node);
+                parents.put(right[node], node);
+                stack.push(right[node]);
+                stack.push(left[node]);
+            }
+        }
+        throw new IllegalStateException("The answer is no longer in the tree");
+     }
+
+    /**
+     * Copies the nodes if more than half of them can't be reached anymore.
+     */
+     private void compactIfMostlyDead() {
+        if (size >= MIN_COMPACT_NODES && dead > size / 2) compactNodes();
+     }
+
+    /**
+     * Copies the nodes the newest tree can reach into new arrays, in pre-order,
+     * along with their counts, and publishes the copy. Trees that were
+     * published before keep the old arrays and counts, so sessions playing on
+     * them are not disturbed, and the old arrays can be freed once they are done.
+     */
+     private void compactNodes() {
+        Tree tree = tree();
+        int[] order = tree.preOrder();
+        int capacity = Math.max(16, order.length * 2);
+        int[] newLeft = new int[capacity];
+        int[] newRight = new int[capacity];
+        int[] newText = new int[capacity];
+        Counters counts = new Counters();
+        counts.ensureCapacity(order.length);
+
+        moved = new int[size];
+        Arrays.fill(moved, NONE);
+        for (int i = 0; i < order.length; i++) {
+            moved[order[i]] = i;
+        }
+        for (int i = 0; i < order.length; i++) {
+            int node = order[i];
+            newLeft[i] = (left[node] == NONE) ? NONE : moved[left[node]];
+            newRight[i] = (right[node] == NONE) ? NONE : moved[right[node]];
+            newText[i] = text[node];
+            counts.set(i, tree.visits.get(node));
+        }
+        left = newLeft;
+        right = newRight;
+        text = newText;
+        visits = counts;
+        size = order.length;
+        dead = 0;
+        generation++;
+        publish(0);
+     }
+
+    /**
+     * Returns the average number of questions asked in the games that have been
+     * played, from how many games reached each answer of the current tree.
+     * If no games have been played, every answer counts as one game.
+     * @return returns the average number of questions per game
+     */
+     public double averageQuestions() {
+        Tree tree = tree();
+        long games = 0;
+        long answers = 0;
+        double questions = 0;
+        double depths = 0;
+
+        //walk the tree keeping the depth of each node
+        IntStack stack = new IntStack();
+        IntStack depth = new IntStack();
+        stack.push(tree.root);
+        depth.push(0);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            int d = depth.pop();
+            if (tree.isAnswer(node)) {
+                long count = tree.visits.get(node);
+                games += count;
+                questions += (double) d * count;
+                answers++;
+                depths += d;
             } else {
-                if (branch) {
-                    if (newQuestionAns.charAt(0) == 'y') {
-                        previous.left = new QuestionNode(newQuestion, objNode, prevObj);
-                    } else {
-                        previous.left = new QuestionNode(newQuestion, prevObj, objNode);
-                    }
-                } else {
-                    if (newQuestionAns.charAt(0) == 'y') {
-                        previous.right = new QuestionNode(newQuestion, objNode, prevObj);
-                    } else {
-                        previous.right = new QuestionNode(newQuestion, prevObj, objNode);
-                    }
+                stack.push(tree.right[node]);
+                depth.push(d + 1);
+                stack.push(tree.left[node]);
+                depth.push(d + 1);
+            }
+        }
+        return (games == 0) ? depths / answers : questions / games;
+     }
+
+    /**
+     * makes a tree whose root is the given node the one players see
+     */
+     private void publish(int root) {
+        current.set(new Tree(root, generation, left, right, text, visits, pool, poolSize));
+     }
+
+    /**
+     * returns the tree players see now
+     */
+     private Tree tree() {
+        Tree tree = current.get();
+        if (tree == null) throw new IllegalArgumentException("The list is null! No questions!");
+        return tree;
+     }
+
+    /**
+     * adds an answer node with the given text and returns its index
+     */
+     private int newNode(String s) {
+        return newNode(intern(s));
+     }
+
+     private int newNode(int textIndex) {
+        if (size == text.length) {
+            int capacity = size * 2;
+            left = Arrays.copyOf(left, capacity);
+            right = Arrays.copyOf(right, capacity);
+            text = Arrays.copyOf(text, capacity);
+        }
+        visits.ensureCapacity(size + 1);
+        left[size] = NONE;
+        right[size] = NONE;
+        text[size] = textIndex;
+        return size++;
+     }
+
+    /**
+     * returns the index of a string in the pool, adding it if it isn't there yet
+     */
+     private int intern(String s) {
+        if (poolIndex == null) {
+            poolIndex = new HashMap<>();
+            for (int i = 0; i < poolSize; i++) {
+                poolIndex.putIfAbsent(pool[i], i);
+            }
+        }
+        Integer index = poolIndex.get(s);
+        if (index != null) return index;
+        if (poolSize == pool.length) pool = Arrays.copyOf(pool, Math.max(16, poolSize * 2));
+        pool[poolSize] = s;
+        poolIndex.put(s, poolSize);
+        return poolSize++;
+     }
+
+    /**
+     * One version of the tree. It holds the arrays and counts as they were
+     * when it was published, and how many times the nodes had been copied to
+     * new arrays by then; the nodes it can reach never change, so it can be
+     * read by any number of threads without locking.
+     */
+    private static class Tree {
+        private final int root;
+        private final int generation;
+        private final int[] left;
+        private final int[] right;
+        private final int[] text;
+        private final Counters visits;
+        private final String[] pool;
+        private final int poolSize;
+
+        public Tree(int root, int generation, int[] left, int[] right, int[] text, Counters visits,
+                    String[] pool, int poolSize) {
+            this.root = root;
+            this.generation = generation;
+            this.left = left;
+            this.right = right;
+            this.text = text;
+            this.visits = visits;
+            this.pool = pool;
+            this.poolSize = poolSize;
+        }
+
+        public boolean isAnswer(int node) {
+            return left[node] == NONE || right[node] == NONE;
+        }
+
+        public String text(int node) {
+            return pool[text[node]];
+        }
+
+        //returns the nodes of the tree in pre-order
+        public int[] preOrder() {
+            IntStack order = new IntStack();
+            IntStack stack = new IntStack();
+            stack.push(root);
+            while (!stack.isEmpty()) {
+                int node = stack.pop();
+                order.push(node);
+                if (!isAnswer(node)) {
+                    stack.push(right[node]);
+                    stack.push(left[node]);
+                }
+            }
+            return order.toArray();
+        }
+    }
+
+    /**
+     * One player's game: where they are in the tree and the answers they gave
+     * to get there. A session is meant to be used by one thread; different
+     * sessions can be used by different threads at the same time.
+     */
+    public class Session {
+        private Tree tree;
+        private int node;
+
+        //the questions answered so far, and for each one whether the answer was yes
+        private final IntStack path = new IntStack();
+        private final BitSet choices = new BitSet();
+
+        private Session(Tree tree) {
+            start(tree);
+        }
+
+        /**
+         * @return returns the current question, or the guess once there are no more questions
+         */
+        public String getText() {
+            return tree.text(node);
+        }
+
+        /**
+         * @return returns true if the session has reached an answer, so getText() is its guess
+         */
+        public boolean isGuess() {
+            return tree.isAnswer(node);
+        }
+
+        /**
+         * Answers the current question and moves on to the next question or the guess.
+         * @param yes true if the answer is yes
+         */
+        public void answer(boolean yes) {
+            if (isGuess()) throw new IllegalStateException("There are no more questions");
+            choices.set(path.size(), yes);
+            path.push(node);
+            node = yes ? tree.left[node] : tree.right[node];
+            if (isGuess()) tree.visits.increment(node);
+        }
+
+        /**
+         * Teaches the game an object after it guessed wrong, and starts this
+         * session over on the tree that knows the new object.
+         * @param object the object the player was thinking of
+         * @param question a question that tells the object apart from the guess
+         * @param objectIsYes true if the answer to the question is yes for the object
+         * @throws StaleSessionException if the nodes were copied to new arrays twice
+         * since the session started; nothing is learned, and the session has to be restarted
+         */
+        public void learn(String object, String question, boolean objectIsYes) {
+            if (object == null || question == null) throw new IllegalArgumentException("Object or question is null");
+            if (!isGuess()) throw new IllegalStateException("The game has not guessed yet");
+            QuestionsGame.this.learn(this, question, object, objectIsYes);
+            restart();
+        }
+
+        /**
+         * Starts over at the first question of the newest tree.
+         */
+        public void restart() {
+            start(tree());
+        }
+
+        private void start(Tree tree) {
+            this.tree = tree;
+            this.node = tree.root;
+            path.clear();
+            choices.clear();
+            if (isGuess()) tree.visits.increment(node);
+        }
+    }
+
+    /**
+     * Thrown when a session tries to teach the game an object after the nodes
+     * were copied to new arrays twice while it was playing. The answer it
+     * reached can no longer be found, so it has to be restarted and played again.
+     */
+    public static class StaleSessionException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private StaleSessionException() {
+            super("The game was compacted twice since this session started; restart it and play again");
+        }
+    }
+
+    /**
+     * A journal of the objects learned since the snapshot was saved. It starts
+     * with a header that names the snapshot by its size and checksum. Each
+     * record after it holds its length, the number of questions on the path
+     * to the answer that was replaced and a bit for each (1 for yes), 1 if the
+     * object is on the yes side, the question and the object, and a checksum
+     * of the record.
+     */
+    private class Journal {
+        private final Path snapshot;
+        private final Path file;
+        private final FileChannel channel;
+
+        //the size of the snapshot; once the journal is bigger, it is compacted
+        private long snapshotBytes;
+
+        public Journal(Path snapshot, Path file) throws IOException {
+            this.snapshot = snapshot;
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        //adds a record for an object learned in place of 'leaf'; 'path' is the
+        //questions from the root down to it
+        public void append(int[] path, int leaf, String question, String object, boolean objectIsYes) {
+            BitSet yes = new BitSet();
+            for (int i = 0; i < path.length; i++) {
+                int next = (i + 1 < path.length) ? path[i + 1] : leaf;
+                yes.set(i, left[path[i]] == next);
+            }
+            byte[] bits = Arrays.copyOf(yes.toByteArray(), (path.length + 7) >>> 3);
+            byte[] q = question.getBytes(StandardCharsets.UTF_8);
+            byte[] o = object.getBytes(StandardCharsets.UTF_8);
+            int length = 4 + bits.length + 1 + 4 + q.length + 4 + o.length;
+            ByteBuffer record = ByteBuffer.allocate(4 + length + 4);
+            record.putInt(length).putInt(path.length).put(bits).put((byte) (objectIsYes ? 1 : 0));
+            record.putInt(q.length).put(q).putInt(o.length).put(o);
+            record.putInt(checksum(record.array(), 4, length));
+            record.flip();
+            try {
+                while (record.hasRemaining()) {
+                    channel.write(record);
+                }
+            } catch (IOException e) {
+                throw fail(e);
+            }
+        }
+
+        //compacts the journal once replaying it would read more than loading a snapshot
+        public void compactIfLong() {
+            try {
+                if (channel.position() - JOURNAL_HEADER > Math.max(snapshotBytes, MIN_JOURNAL_BYTES)) {
+                    compact(tree());
                 }
+            } catch (IOException e) {
+                throw fail(e);
             }
         }
+
+        //saves the given tree as the snapshot and empties the journal. The new
+        //snapshot replaces the old one all at once, before the journal is emptied
+        public void compact(Tree tree) throws IOException {
+            CRC32 checksum = new CRC32();
+            Path temp = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                write(tree, new CheckedOutputStream(Channels.newOutputStream(out), checksum));
+                out.force(true);
+                snapshotBytes = out.size();
+            }
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            start(snapshotBytes, checksum.getValue());
+        }
+
+        //learns the objects in the journal again, and drops a record at the end
+        //that was cut off. Returns the number of objects learned
+        public int replay(long length, long crc) throws IOException {
+            snapshotBytes = length;
+            if (channel.size() > Integer.MAX_VALUE) throw new IOException("Journal is too big: " + file);
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, buffer.position()) < 0) break;
+            }
+            buffer.flip();
+            if (buffer.remaining() < JOURNAL_HEADER || buffer.getInt() != JOURNAL_MAGIC
+                    || buffer.getInt() != JOURNAL_VERSION || buffer.getLong() != length
+                    || buffer.getLong() != crc) {
+                start(length, crc);
+                return 0;
+            }
+
+            int root = tree().root;
+            int records = 0;
+            int end = buffer.position();
+            while (buffer.remaining() >= 4) {
+                int size = buffer.getInt();
+                int at = buffer.position();
+                if (size < 13 || size > buffer.remaining() - 4) break;
+                if (checksum(buffer.array(), at, size) != buffer.getInt(at + size)) break;
+                int depth = buffer.getInt();
+                if (depth < 0 || (depth + 7L) >>> 3 > size - 13) throw new IOException("Bad journal record " + records);
+                byte[] bits = new byte[(depth + 7) >>> 3];
+                buffer.get(bits);
+                boolean objectIsYes = buffer.get() != 0;
+                String question = string(buffer, at + size);
+                String object = string(buffer, at + size);
+                root = relearn(root, BitSet.valueOf(bits), depth, question, object, objectIsYes);
+                buffer.position(at + size + 4);
+                end = buffer.position();
+                records++;
+            }
+            if (records > 0) publish(root);
+            compactIfMostlyDead();
+            channel.truncate(end);
+            channel.position(end);
+            return records;
+        }
+
+        //empties the journal and writes a header naming the snapshot it goes with
+        private void start(long length, long crc) throws IOException {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(JOURNAL_HEADER);
+            header.putInt(JOURNAL_MAGIC).putInt(JOURNAL_VERSION).putLong(length).putLong(crc).flip();
+            channel.position(0);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+        }
+
+        //closes a journal that could not be written; the game goes on without one
+        public UncheckedIOException fail(IOException e) {
+            journal = null;
+            try {
+                channel.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            return new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * reads a string written as its length in bytes and then its UTF-8 bytes,
+     * which have to end before 'limit'
+     */
+     private static String string(ByteBuffer buffer, int limit) throws IOException {
+        int length = buffer.getInt();
+        if (length < 0 || length > limit - buffer.position()) throw new IOException("Bad string in journal");
+        String s = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return s;
      }
+
+     private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+     }
+
+    /**
+     * Counts for each node that can be added to while nodes are being added.
+     * The counts are kept in fixed size chunks, so making room for more nodes
+     * never moves a count that another thread might be adding to.
+     */
+    private static class Counters {
+        private static final int CHUNK_BITS = 12;
+        private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+        private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+        //makes room for nodes 0 to capacity - 1; only called by one thread at a time
+        public void ensureCapacity(int capacity) {
+            int needed = (capacity + CHUNK_SIZE - 1) >>> CHUNK_BITS;
+            if (needed > chunks.length) {
+                AtomicLongArray[] grown = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+                for (int i = chunks.length; i < grown.length; i++) {
+                    grown[i] = new AtomicLongArray(CHUNK_SIZE);
+                }
+                chunks = grown;
+            }
+        }
+
+        public void increment(int node) {
+            chunks[node >>> CHUNK_BITS].incrementAndGet(node & (CHUNK_SIZE - 1));
+        }
+
+        public long get(int node) {
+            return chunks[node >>> CHUNK_BITS].get(node & (CHUNK_SIZE - 1));
+        }
+
+        public void set(int node, long count) {
+            chunks[node >>> CHUNK_BITS].set(node & (CHUNK_SIZE - 1), count);
+        }
+    }
+
+    /**
+     * A stack of node indexes that grows as needed.
+     */
+    private static class IntStack {
+        private int[] items = new int[16];
+        private int size = 0;
+
+        public void push(int item) {
+            if (size == items.length) items = Arrays.copyOf(items, size * 2);
+            items[size++] = item;
+        }
+
+        public int pop() {
+            return items[--size];
+        }
+
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+
+        public int[] toArray() {
+            return Arrays.copyOf(items, size);
+        }
+    }
 }
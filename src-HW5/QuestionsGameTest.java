@@ -0,0 +1,188 @@
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/02/2020
+ *
+ * Checks the game on trees that ask the same question more than once on a
+ * path, with the same answer or with both answers, as well as trees that
+ * never do. Random games are played on each tree; averageQuestions() has to
+ * match the questions those games really took, before and after the tree
+ * is saved and loaded again, and every object taught to the tree has to be
+ * in it afterwards. Then one game learns enough objects for its nodes to be
+ * copied to new arrays several times, with every object taught by a session
+ * that started before the object ahead of it was learned.
+ * Usage: java QuestionsGameTest [trees] [seed]
+ */
+public class QuestionsGameTest {
+
+    //how many different question texts the random trees use; few, so they repeat
+    private static final int QUESTIONS = 3;
+
+    private static final int MAX_ANSWERS = 40;
+    private static final int GAMES = 200;
+    private static final int LEARNED = 20;
+
+    //enough objects for the nodes of a game to be copied to new arrays a few times
+    private static final int LONG_LEARNED = 50000;
+
+    public static void main(String[] args) throws IOException {
+        int trees = (args.length > 0) ? Integer.parseInt(args[0]) : 3000;
+        long seed = (args.length > 1) ? Long.parseLong(args[1]) : 227;
+        Random random = new Random(seed);
+
+        //q2 is asked again below both of its answers; with no games played every answer counts once
+        QuestionsGame game = new QuestionsGame(new Scanner(
+                "Q:\nq2\nQ:\nq2\nA:\nobj0\nQ:\nq2\nQ:\nq2\nA:\nobj1\nA:\nobj2\nA:\nobj3\nA:\nobj4\n"));
+        expect(game.averageQuestions(), (2 + 4 + 4 + 3 + 1) / 5.0, "average with no games");
+        check(game, random);
+
+        for (int i = 0; i < trees; i++) {
+            check(new QuestionsGame(new Scanner(randomTree(random, QUESTIONS))), random);
+            check(new QuestionsGame(new Scanner(randomTree(random, Integer.MAX_VALUE))), random);
+        }
+        System.out.println("All checks passed on " + (2 * trees + 1) + " trees");
+
+        learnForLong(random);
+        System.out.println("Learned " + LONG_LEARNED + " objects");
+    }
+
+    //each object is taught by a session that was already waiting at its guess
+    //when the object before it was learned, so at most one copy of the nodes
+    //happens while it waits; a session that waits through all of them is turned away
+    private static void learnForLong(Random random) {
+        QuestionsGame game = new QuestionsGame("obj");
+        Set<String> objects = objects(game);
+        QuestionsGame.Session stale = game.newSession();
+        walk(stale, random);
+        QuestionsGame.Session waiting = game.newSession();
+        walk(waiting, random);
+        for (int i = 0; i < LONG_LEARNED; i++) {
+            QuestionsGame.Session next = game.newSession();
+            walk(next, random);
+            String object = "learned " + i;
+            waiting.learn(object, "q" + i, random.nextBoolean());
+            objects.add(object);
+            waiting = next;
+        }
+        if (!objects.equals(objects(game))) throw new AssertionError("Objects were lost");
+
+        //every game played so far is still counted after the copies: the two
+        //sessions that started on the first tree and one for each object
+        long games = LONG_LEARNED + 2;
+        double before = game.averageQuestions();
+        long questions = 0;
+        for (int i = 0; i < GAMES; i++) {
+            questions += walk(game.newSession(), random);
+        }
+        expect(game.averageQuestions(), (before * games + questions) / (games + GAMES), "games counted");
+        try {
+            stale.learn("stale", "stale question", true);
+            throw new AssertionError("A session from before every copy learned an object");
+        } catch (QuestionsGame.StaleSessionException e) {
+            //expected; once it starts over it can learn again
+        }
+        stale.restart();
+        walk(stale, random);
+        stale.learn("stale", "stale question", true);
+        if (!objects(game).contains("stale")) throw new AssertionError("Restarted session didn't learn");
+    }
+
+    //plays games on a tree and checks the average, a saved copy and learning
+    private static void check(QuestionsGame game, Random random) throws IOException {
+        long questions = 0;
+        for (int i = 0; i < GAMES; i++) {
+            questions += walk(game.newSession(), random);
+        }
+        expect(game.averageQuestions(), questions / (double) GAMES, "average of the games played");
+
+        //the counts are saved with the tree
+        Path file = Files.createTempFile("questions", ".bin");
+        try {
+            try (OutputStream out = Files.newOutputStream(file)) {
+                game.saveBinary(out);
+            }
+            QuestionsGame loaded = QuestionsGame.loadBinary(file);
+            expect(loaded.averageQuestions(), game.averageQuestions(), "average after loading");
+            if (!save(game).equals(save(loaded))) throw new AssertionError("Loaded tree is different");
+        } finally {
+            Files.delete(file);
+        }
+
+        Set<String> objects = objects(game);
+        for (int i = 0; i < LEARNED; i++) {
+            QuestionsGame.Session session = game.newSession();
+            walk(session, random);
+            String object = "learned " + i;
+            session.learn(object, "q" + random.nextInt(QUESTIONS), random.nextBoolean());
+            objects.add(object);
+        }
+        if (!objects.equals(objects(game))) throw new AssertionError("Objects were lost");
+        QuestionsGame reread = new QuestionsGame(new Scanner(save(game)));
+        if (!save(game).equals(save(reread))) throw new AssertionError("Tree doesn't read back the same");
+    }
+
+    //a random tree in the Q:/A: format whose questions use the given number of
+    //texts, or a different text for every question if there are that many
+    private static String randomTree(Random random, int questions) {
+        StringBuilder tree = new StringBuilder();
+        int answers = 2 + random.nextInt(MAX_ANSWERS - 1);
+        randomTree(random, questions, answers, new int[2], tree);
+        return tree.toString();
+    }
+
+    //'next' holds the next question and object numbers
+    private static void randomTree(Random random, int questions, int answers, int[] next, StringBuilder tree) {
+        if (answers == 1) {
+            tree.append("A:\nobj").append(next[1]++).append('\n');
+        } else {
+            int text = (questions == Integer.MAX_VALUE) ? next[0]++ : random.nextInt(questions);
+            tree.append("Q:\nq").append(text).append('\n');
+            int left = 1 + random.nextInt(answers - 1);
+            randomTree(random, questions, left, next, tree);
+            randomTree(random, questions, answers - left, next, tree);
+        }
+    }
+
+    //plays a game that favors the yes answers, so some objects come up more
+    //than others, and returns the number of questions it took
+    private static int walk(QuestionsGame.Session session, Random random) {
+        int questions = 0;
+        while (!session.isGuess()) {
+            session.answer(random.nextInt(4) != 0);
+            questions++;
+        }
+        return questions;
+    }
+
+    private static void expect(double actual, double expected, String what) {
+        if (Math.abs(actual - expected) > 1e-9) throw new AssertionError(what + ": " + actual + " instead of " + expected);
+    }
+
+    //the objects in a game's tree
+    private static Set<String> objects(QuestionsGame game) {
+        Set<String> objects = new HashSet<>();
+        Scanner lines = new Scanner(save(game));
+        while (lines.hasNextLine()) {
+            String letter = lines.nextLine();
+            String text = lines.nextLine();
+            if (letter.equals("A:")) objects.add(text);
+        }
+        return objects;
+    }
+
+    private static String save(QuestionsGame game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        game.saveQuestions(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
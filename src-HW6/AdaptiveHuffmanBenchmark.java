@@ -0,0 +1,119 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/12/2020
+ *
+ * Class description:
+ * Compares the one-pass AdaptiveHuffmanCode with the two-pass static
+ * ByteHuffmanCode on the same files: how small the output is and how
+ * many MB/s each one compresses and decompresses.
+ * Usage: java AdaptiveHuffmanBenchmark [file or directory]...
+ * The files are found the same way as in ByteHuffmanBenchmark.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class AdaptiveHuffmanBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws IOException {
+        List<byte[]> corpus = ByteHuffmanBenchmark.loadCorpus(args);
+        long totalBytes = 0;
+        for (byte[] data : corpus) {
+            totalBytes += data.length;
+        }
+        System.out.println("Corpus: " + corpus.size() + " files, " + totalBytes + " bytes");
+        if (totalBytes == 0) return;
+
+        //check both coders round trip and measure their output
+        List<byte[]> staticPacked = new ArrayList<>();
+        List<byte[]> adaptivePacked = new ArrayList<>();
+        long staticBytes = 0;
+        long adaptiveBytes = 0;
+        for (byte[] data : corpus) {
+            byte[] packed = ByteHuffmanCode.compress(data);
+            if (!Arrays.equals(data, ByteHuffmanCode.decompress(packed)))
+                throw new IllegalStateException("Static round trip failed");
+            staticPacked.add(packed);
+            staticBytes += packed.length;
+
+            packed = adaptiveCompress(data);
+            if (!Arrays.equals(data, adaptiveDecompress(packed)))
+                throw new IllegalStateException("Adaptive round trip failed");
+            adaptivePacked.add(packed);
+            adaptiveBytes += packed.length;
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            time(corpus, staticPacked, adaptivePacked);
+        }
+        long[] nanos = new long[4];
+        for (int i = 0; i < ROUNDS; i++) {
+            long[] round = time(corpus, staticPacked, adaptivePacked);
+            for (int j = 0; j < nanos.length; j++) {
+                nanos[j] += round[j];
+            }
+        }
+
+        long processed = totalBytes * ROUNDS;
+        System.out.printf("%-9s %8s %12s %14s%n", "coder", "ratio", "compress", "decompress");
+        System.out.printf("%-9s %8.3f %7.1f MB/s %9.1f MB/s%n", "static", staticBytes / (double) totalBytes,
+                megabytesPerSecond(processed, nanos[0]), megabytesPerSecond(processed, nanos[1]));
+        System.out.printf("%-9s %8.3f %7.1f MB/s %9.1f MB/s%n", "adaptive", adaptiveBytes / (double) totalBytes,
+                megabytesPerSecond(processed, nanos[2]), megabytesPerSecond(processed, nanos[3]));
+    }
+
+    //returns the time taken by static compress, static decompress, adaptive compress and adaptive decompress
+    private static long[] time(List<byte[]> corpus, List<byte[]> staticPacked, List<byte[]> adaptivePacked)
+            throws IOException {
+        long[] nanos = new long[4];
+        long start = System.nanoTime();
+        for (byte[] data : corpus) {
+            ByteHuffmanCode.compress(data);
+        }
+        nanos[0] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (byte[] packed : staticPacked) {
+            ByteHuffmanCode.decompress(packed);
+        }
+        nanos[1] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (byte[] data : corpus) {
+            adaptiveCompress(data);
+        }
+        nanos[2] = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (byte[] packed : adaptivePacked) {
+            adaptiveDecompress(packed);
+        }
+        nanos[3] = System.nanoTime() - start;
+        return nanos;
+    }
+
+    private static byte[] adaptiveCompress(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 16);
+        AdaptiveHuffmanCode.compress(new ByteArrayInputStream(data), output);
+        return output.toByteArray();
+    }
+
+    private static byte[] adaptiveDecompress(byte[] packed) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(packed.length * 2);
+        AdaptiveHuffmanCode.decompress(new ByteArrayInputStream(packed), output);
+        return output.toByteArray();
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return (bytes / 1e6) / (nanos / 1e9);
+    }
+}
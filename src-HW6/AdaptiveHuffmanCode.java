@@ -0,0 +1,352 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/12/2020
+ *
+ * Class description:
+ * A one-pass (adaptive) Huffman coder using the FGK algorithm.
+ * The static coders need to count every byte before they can build a
+ * tree, which means reading the input twice. Here the compressor and
+ * the decompressor both start from the same empty tree and update it
+ * the same way after every byte, so the tree always matches the bytes
+ * seen so far and nothing has to be counted ahead of time. That lets
+ * live streams (sockets, pipes) be compressed as they arrive, using a
+ * fixed amount of memory.
+ *
+ * The tree lives in arrays indexed by node number. Node numbers follow
+ * the sibling property: weights never decrease as the numbers go up, so
+ * the root is the highest numbered node. A byte that has not been seen
+ * yet is sent as the code of the "not yet transmitted" (NYT) leaf
+ * followed by the byte itself in 9 bits. A special end symbol marks
+ * the end of the stream.
+ */
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class AdaptiveHuffmanCode {
+
+    //the 256 byte values plus the end of stream marker
+    private static final int END = 256;
+    private static final int SYMBOLS = END + 1;
+    private static final int LITERAL_BITS = 9;
+
+    //a leaf for every symbol and for NYT, plus the internal nodes joining them
+    private static final int NODES = 2 * (SYMBOLS + 1) - 1;
+    private static final int ROOT = NODES - 1;
+
+    //values of 'symbol' for nodes that are not leaves for a byte
+    private static final int INTERNAL = -1;
+    private static final int NYT = -2;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    //told about every stream compressed or decompressed; NONE turns timing off
+    private static volatile CompressionListener listener = CompressionListener.NONE;
+
+    private final long[] weight = new long[NODES];
+    private final int[] parent = new int[NODES];
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] symbol = new int[NODES];
+
+    //the node of each symbol, or -1 if it has not been seen yet
+    private final int[] leaf = new int[SYMBOLS];
+    private int nyt;
+
+    //scratch space for the bits of one code, leaf first
+    private final int[] path = new int[NODES];
+
+    /**
+     * Creates a coder whose tree holds only the NYT leaf.
+     */
+    private AdaptiveHuffmanCode() {
+        Arrays.fill(leaf, -1);
+        nyt = ROOT;
+        parent[ROOT] = -1;
+        symbol[ROOT] = NYT;
+    }
+
+    /**
+     * Installs the listener that is told about every stream compressed
+     * or decompressed by this class. Adaptive codes change after every
+     * byte, so codeBuilt is never reported.
+     *
+     * @param newListener the listener, or CompressionListener.NONE to stop reporting
+     */
+    public static void setListener(CompressionListener newListener) {
+        if (newListener == null) throw new IllegalArgumentException("Listener is null, use CompressionListener.NONE");
+        listener = newListener;
+    }
+
+    /**
+     * Compresses a stream in a single pass.
+     * Pre: output is open
+     * Post: input has been read to its end; output has not been closed
+     *
+     * @param input  the bytes to compress
+     * @param output where the compressed bytes are written
+     * @return the number of bytes read from input
+     * @throws IOException if either stream fails
+     */
+    public static long compress(InputStream input, OutputStream output) throws IOException {
+        CompressionListener report = listener;
+        long start = (report != CompressionListener.NONE) ? System.nanoTime() : 0;
+        AdaptiveHuffmanCode coder = new AdaptiveHuffmanCode();
+        StreamBitWriter out = new StreamBitWriter(output);
+        byte[] chunk = new byte[BUFFER_SIZE];
+        long total = 0;
+        try {
+            int read;
+            while ((read = input.read(chunk)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    coder.encode(chunk[i] & 0xFF, out);
+                }
+                total += read;
+            }
+            coder.encode(END, out);
+            out.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        if (report != CompressionListener.NONE) report.compressed(total, out.written, System.nanoTime() - start);
+        return total;
+    }
+
+    /**
+     * Restores a stream made by compress in a single pass.
+     * Post: the compressed stream has been read through its end marker
+     * (input may have been read past it); output has not been closed
+     *
+     * @param input  the compressed bytes
+     * @param output where the original bytes are written
+     * @return the number of bytes written to output
+     * @throws IOException if either stream fails
+     */
+    public static long decompress(InputStream input, OutputStream output) throws IOException {
+        CompressionListener report = listener;
+        long start = (report != CompressionListener.NONE) ? System.nanoTime() : 0;
+        AdaptiveHuffmanCode coder = new AdaptiveHuffmanCode();
+        StreamBitReader in = new StreamBitReader(input);
+        byte[] chunk = new byte[BUFFER_SIZE];
+        int used = 0;
+        long total = 0;
+        try {
+            int next;
+            while ((next = coder.decode(in)) != END) {
+                chunk[used++] = (byte) next;
+                if (used == chunk.length) {
+                    output.write(chunk, 0, used);
+                    total += used;
+                    used = 0;
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.write(chunk, 0, used);
+        total += used;
+        if (report != CompressionListener.NONE) report.decompressed(in.read, total, System.nanoTime() - start);
+        return total;
+    }
+
+    //writes the current code for 'next' and then updates the tree
+    private void encode(int next, BitWriter out) {
+        boolean seen = leaf[next] >= 0;
+        writePath(seen ? leaf[next] : nyt, out);
+        if (!seen) out.write(next, LITERAL_BITS);
+        update(next);
+    }
+
+    //reads one code, updates the tree, and returns the symbol it stood for
+    private int decode(BitReader in) {
+        int node = ROOT;
+        while (symbol[node] == INTERNAL) {
+            node = (nextBits(in, 1) == 0) ? left[node] : right[node];
+        }
+        int next = (symbol[node] == NYT) ? nextBits(in, LITERAL_BITS) : symbol[node];
+        if (next > END) throw new IllegalArgumentException("Corrupt data: bad literal " + next);
+        if (next != END) update(next);
+        return next;
+    }
+
+    //writes the bits on the way from the root down to 'node'
+    private void writePath(int node, BitWriter out) {
+        int depth = 0;
+        for (int current = node; current != ROOT; current = parent[current]) {
+            path[depth++] = (right[parent[current]] == current) ? 1 : 0;
+        }
+        //send the bits root first, in chunks that fit in one write
+        long bits = 0;
+        int count = 0;
+        for (int i = depth - 1; i >= 0; i--) {
+            bits = (bits << 1) | path[i];
+            if (++count == BitReader.LOOKAHEAD) {
+                out.write(bits, count);
+                bits = 0;
+                count = 0;
+            }
+        }
+        if (count > 0) out.write(bits, count);
+    }
+
+    private static int nextBits(BitReader in, int length) {
+        if (in.available() < length) {
+            in.fill();
+            if (in.available() < length) throw new IllegalArgumentException("Corrupt data: input ended early");
+        }
+        int bits = (int) (in.window() >>> (64 - length));
+        in.skip(length);
+        return bits;
+    }
+
+    /**
+     * Adds one to the weight of a symbol and of every node above it,
+     * moving nodes as needed so the sibling property still holds.
+     *
+     * @param next the symbol that was just coded
+     */
+    private void update(int next) {
+        int q = leaf[next];
+        if (q < 0) {
+            //the NYT leaf becomes an internal node with a new NYT and the new leaf below it
+            int node = nyt;
+            int newLeaf = node - 1;
+            int newNyt = node - 2;
+            symbol[node] = INTERNAL;
+            left[node] = newNyt;
+            right[node] = newLeaf;
+            makeLeaf(newLeaf, node, next);
+            makeLeaf(newNyt, node, NYT);
+            leaf[next] = newLeaf;
+            nyt = newNyt;
+            q = newLeaf;
+        }
+        while (q != -1) {
+            //find the highest numbered node with the same weight, other than our parent
+            int leader = q;
+            while (leader < ROOT && weight[leader + 1] == weight[q]) {
+                leader++;
+            }
+            if (leader == parent[q]) leader--;
+            if (leader != q) {
+                swap(q, leader);
+                q = leader;
+            }
+            weight[q]++;
+            q = parent[q];
+        }
+    }
+
+    private void makeLeaf(int node, int parentNode, int value) {
+        weight[node] = 0;
+        parent[node] = parentNode;
+        left[node] = -1;
+        right[node] = -1;
+        symbol[node] = value;
+    }
+
+    //exchanges the subtrees at two node numbers; the nodes keep their parents
+    private void swap(int a, int b) {
+        int temp = symbol[a];
+        symbol[a] = symbol[b];
+        symbol[b] = temp;
+        temp = left[a];
+        left[a] = left[b];
+        left[b] = temp;
+        temp = right[a];
+        right[a] = right[b];
+        right[b] = temp;
+        relink(a);
+        relink(b);
+    }
+
+    //points whatever hangs below a node number back at it
+    private void relink(int node) {
+        if (symbol[node] == INTERNAL) {
+            parent[left[node]] = node;
+            parent[right[node]] = node;
+        } else if (symbol[node] == NYT) {
+            nyt = node;
+        } else {
+            leaf[symbol[node]] = node;
+        }
+    }
+
+    /**
+     * A BitWriter that empties its buffer into an OutputStream.
+     */
+    private static class StreamBitWriter extends BitWriter {
+        private final ByteBuffer buffer;
+        private final OutputStream output;
+
+        //the number of bytes passed on to the output so far
+        public long written;
+
+        public StreamBitWriter(OutputStream output) {
+            this(ByteBuffer.allocate(BUFFER_SIZE), output);
+        }
+
+        private StreamBitWriter(ByteBuffer buffer, OutputStream output) {
+            super(buffer);
+            this.buffer = buffer;
+            this.output = output;
+        }
+
+        @Override
+        protected void drain(ByteBuffer full) {
+            try {
+                output.write(full.array(), 0, full.position());
+                written += full.position();
+                full.clear();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        //writes out the last partial byte and everything still in the buffer
+        public void finish() {
+            flush();
+            drain(buffer);
+        }
+    }
+
+    /**
+     * A BitReader that refills its buffer from an InputStream.
+     */
+    private static class StreamBitReader extends BitReader {
+        private final ByteBuffer buffer;
+        private final InputStream input;
+
+        //the number of bytes taken from the input so far
+        public long read;
+
+        public StreamBitReader(InputStream input) {
+            this(ByteBuffer.allocate(BUFFER_SIZE).limit(0), input);
+        }
+
+        private StreamBitReader(ByteBuffer buffer, InputStream input) {
+            super(buffer);
+            this.buffer = buffer;
+            this.input = input;
+        }
+
+        @Override
+        protected ByteBuffer nextBuffer() {
+            try {
+                int count = input.read(buffer.array());
+                if (count == -1) return null;
+                read += count;
+                buffer.position(0).limit(count);
+                return buffer;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/10/2020
+ *
+ * Class description:
+ * Reads bits back out of a ByteBuffer a whole long word at a time.
+ * The next bits of input are kept left-aligned in a 64 bit window so
+ * a decoder can look at up to 57 bits at once, and then skip however
+ * many of them it used. When the buffer is empty nextBuffer() is asked
+ * for more input, which lets subclasses read from several buffers.
+ */
+
+import java.nio.ByteBuffer;
+
+class BitReader {
+
+    //the most bits a caller can count on seeing in the window after fill()
+    static final int LOOKAHEAD = 57;
+
+    private ByteBuffer buffer;
+
+    //the next bits of input, left-aligned
+    private long window;
+    private int available;
+
+    //a word read from the buffer that has not all moved into the window yet
+    private long next;
+    private int nextAvailable;
+
+    /**
+     * Creates a reader over the remaining bytes of the given buffer.
+     *
+     * @param buffer the packed bits, starting at its position
+     */
+    BitReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Tops up the window so it holds at least LOOKAHEAD bits,
+     * or every remaining bit if there are fewer than that left.
+     */
+    void fill() {
+        while (available < LOOKAHEAD) {
+            if (nextAvailable == 0 && !load()) return;
+            int take = Math.min(64 - available, nextAvailable);
+            window |= next >>> available;
+            next = (take == 64) ? 0 : next << take;
+            nextAvailable -= take;
+            available += take;
+        }
+    }
+
+    /**
+     * @return the next bits of input, left-aligned, with zeros past the end of the input
+     */
+    long window() {
+        return window;
+    }
+
+    /**
+     * @return the number of real bits in the window
+     */
+    int available() {
+        return available;
+    }
+
+    /**
+     * Throws away bits from the front of the window.
+     * Pre: 0 < length <= available()
+     *
+     * @param length the number of bits used
+     */
+    void skip(int length) {
+        window = (length == 64) ? 0 : window << length;
+        available -= length;
+    }
+
+    /**
+     * Called when the current buffer has run out.
+     *
+     * @return the buffer to keep reading from, or null at the end of the input
+     */
+    protected ByteBuffer nextBuffer() {
+        return null;
+    }
+
+    //reads the next word from the buffer into 'next'
+    private boolean load() {
+        while (!buffer.hasRemaining()) {
+            ByteBuffer following = nextBuffer();
+            if (following == null) return false;
+            buffer = following;
+        }
+        if (buffer.remaining() >= 8) {
+            next = buffer.getLong();
+            nextAvailable = 64;
+        } else {
+            //the tail of the buffer, one byte at a time
+            next = 0;
+            nextAvailable = 0;
+            while (buffer.hasRemaining()) {
+                next |= (buffer.get() & 0xFFL) << (56 - nextAvailable);
+                nextAvailable += 8;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/10/2020
+ *
+ * Class description:
+ * Packs variable length codes into a ByteBuffer. Bits are gathered
+ * most significant first in a long and written out a whole word at
+ * a time, so the buffer is only touched once for every 64 bits.
+ * When the buffer runs out of room drain() is called, which by default
+ * fails; subclasses override it to empty the buffer somewhere else.
+ */
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+class BitWriter {
+
+    private final ByteBuffer buffer;
+
+    //bits waiting to be written, left-aligned in the word
+    private long bits;
+    private int count;
+
+    /**
+     * Creates a writer that appends to the given buffer.
+     *
+     * @param buffer where the packed bits are written, starting at its position
+     */
+    BitWriter(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Appends the low bits of a code to the output.
+     * Pre: 0 < length <= 64 and code has no bits set above length
+     * Post: the code follows every bit written before it
+     *
+     * @param code   the code, right-aligned
+     * @param length the number of bits in the code
+     */
+    void write(long code, int length) {
+        int free = 64 - count;
+        if (length < free) {
+            bits |= code << (free - length);
+            count += length;
+        } else {
+            //fill the word, write it, and keep whatever did not fit
+            int spill = length - free;
+            putWord(bits | (code >>> spill));
+            bits = (spill == 0) ? 0 : code << (64 - spill);
+            count = spill;
+        }
+    }
+
+    /**
+     * Writes any bits still waiting in the word, padding the last byte with zeros.
+     * Post: every bit written so far is in the buffer (or has been drained)
+     */
+    void flush() {
+        while (count > 0) {
+            if (!buffer.hasRemaining()) drain(buffer);
+            buffer.put((byte) (bits >>> 56));
+            bits <<= 8;
+            count -= Math.min(8, count);
+        }
+        bits = 0;
+    }
+
+    /**
+     * Called when the buffer is too full for the next write.
+     * Overriding methods must leave room in the buffer for at least one word.
+     *
+     * @param buffer the full buffer
+     */
+    protected void drain(ByteBuffer buffer) {
+        throw new BufferOverflowException();
+    }
+
+    private void putWord(long word) {
+        if (buffer.remaining() < 8) {
+            drain(buffer);
+        }
+        buffer.putLong(word);
+    }
+}
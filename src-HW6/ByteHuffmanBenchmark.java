@@ -0,0 +1,121 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/10/2020
+ *
+ * Class description:
+ * Measures how fast ByteHuffmanCode compresses and restores binary
+ * files, and checks that every file comes back byte for byte.
+ * Usage: java ByteHuffmanBenchmark [file or directory]...
+ * Directories are searched for files. With no arguments the library
+ * directory of the running Java installation is used, which is full of
+ * class archives, native libraries and other binary files.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class ByteHuffmanBenchmark {
+
+    //files larger than this are skipped so the corpus fits in memory
+    private static final long MAX_FILE_SIZE = 64L << 20;
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws IOException {
+        List<byte[]> corpus = loadCorpus(args);
+        long totalBytes = 0;
+        for (byte[] data : corpus) {
+            totalBytes += data.length;
+        }
+        System.out.println("Corpus: " + corpus.size() + " files, " + totalBytes + " bytes");
+        if (totalBytes == 0) return;
+
+        //check every file round trips before timing anything
+        long packedBytes = 0;
+        List<byte[]> packed = new ArrayList<>();
+        for (byte[] data : corpus) {
+            byte[] compressed = ByteHuffmanCode.compress(data);
+            if (!Arrays.equals(data, ByteHuffmanCode.decompress(compressed)))
+                throw new IllegalStateException("Round trip failed");
+            packed.add(compressed);
+            packedBytes += compressed.length;
+        }
+        System.out.printf("Ratio: %.3f (%d -> %d bytes)%n", packedBytes / (double) totalBytes, totalBytes, packedBytes);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            compressAll(corpus);
+            decompressAll(packed);
+        }
+        long compressNanos = 0;
+        long decompressNanos = 0;
+        for (int i = 0; i < ROUNDS; i++) {
+            compressNanos += compressAll(corpus);
+            decompressNanos += decompressAll(packed);
+        }
+        System.out.printf("Compress:   %.1f MB/s%n", megabytesPerSecond(totalBytes * ROUNDS, compressNanos));
+        System.out.printf("Decompress: %.1f MB/s%n", megabytesPerSecond(totalBytes * ROUNDS, decompressNanos));
+    }
+
+    /**
+     * Reads every file named on the command line, searching directories for files.
+     * With no arguments the library directory of the running Java installation is used.
+     *
+     * @param args files or directories
+     * @return the contents of every file no larger than MAX_FILE_SIZE
+     * @throws IOException if a file cannot be read
+     */
+    static List<byte[]> loadCorpus(String[] args) throws IOException {
+        List<Path> roots = new ArrayList<>();
+        for (String arg : args) {
+            roots.add(Paths.get(arg));
+        }
+        if (roots.isEmpty()) roots.add(Paths.get(System.getProperty("java.home"), "lib"));
+
+        List<byte[]> corpus = new ArrayList<>();
+        for (Path root : roots) {
+            try (Stream<Path> files = Files.walk(root)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    if (Files.isRegularFile(file) && Files.size(file) <= MAX_FILE_SIZE) {
+                        corpus.add(Files.readAllBytes(file));
+                    }
+                }
+            }
+        }
+        return corpus;
+    }
+
+    private static long compressAll(List<byte[]> corpus) {
+        long start = System.nanoTime();
+        int check = 0;
+        for (byte[] data : corpus) {
+            check += ByteHuffmanCode.compress(data).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (check < 0) System.out.println(check);
+        return elapsed;
+    }
+
+    private static long decompressAll(List<byte[]> packed) {
+        long start = System.nanoTime();
+        int check = 0;
+        for (byte[] data : packed) {
+            check += ByteHuffmanCode.decompress(data).length;
+        }
+        long elapsed = System.nanoTime() - start;
+        if (check < 0) System.out.println(check);
+        return elapsed;
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return (bytes / 1e6) / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,362 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/10/2020
+ *
+ * Class description:
+ * A Huffman code over raw bytes, so any file (class files, images, text)
+ * can be compressed and restored byte for byte. Every one of the 256
+ * byte values is a symbol. Instead of a tree of nodes the code is kept
+ * as canonical codes: only the code length of each byte is needed to
+ * rebuild it, which keeps the saved header small (one byte per symbol).
+ *
+ * Compressed data has the form:
+ *      256 bytes   the code length of every byte value (0 if unused)
+ *      8 bytes     the number of bytes that were compressed
+ *      the rest    the codes of every byte, packed most significant bit first
+ *
+ * Decoding looks the next bits up in a table for the short codes and
+ * only falls back to walking the canonical code lengths for long ones.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+public class ByteHuffmanCode {
+
+    //the number of different symbols, one for every byte value
+    public static final int ALPHABET = 256;
+
+    //the longest code that still fits in a BitReader's look-ahead
+    static final int MAX_LENGTH = BitReader.LOOKAHEAD;
+
+    //the size of the code lengths plus the original length in front of the data
+    static final int HEADER_SIZE = ALPHABET + 8;
+
+    //codes at most this long are decoded with a single table look-up
+    private static final int TABLE_BITS = 11;
+
+    //told about every code built and every compress/decompress; NONE turns timing off
+    private static volatile CompressionListener listener = CompressionListener.NONE;
+
+    private final int[] lengths;
+    private final long[] codes;
+    private final int maxLength;
+
+    //table entries hold (length << 8) | symbol, or 0 for codes longer than TABLE_BITS
+    private final int[] table;
+
+    //for each length: the first canonical code, how many codes have it,
+    //and where its symbols start in 'sorted'
+    private final long[] firstCode;
+    private final int[] count;
+    private final int[] firstIndex;
+    private final int[] sorted;
+
+    /**
+     * Builds the canonical code for the given code lengths.
+     * Pre: lengths describes a prefix code, for example the result of HuffmanCode.codeLengths
+     * Post: every byte with a non-zero length has a code of that many bits
+     *
+     * @param lengths the code length of each of the 256 byte values, 0 if a byte is unused
+     */
+    public ByteHuffmanCode(int[] lengths) {
+        if (lengths == null || lengths.length != ALPHABET)
+            throw new IllegalArgumentException("Need one code length for each of the " + ALPHABET + " bytes");
+        this.lengths = lengths.clone();
+        int longest = 0;
+        long kraft = 0;
+        for (int i = 0; i < ALPHABET; i++) {
+            int length = lengths[i];
+            if (length < 0 || length > MAX_LENGTH)
+                throw new IllegalArgumentException("Code length " + length + " for byte " + i + " is out of range");
+            if (length > 0) {
+                kraft += 1L << (MAX_LENGTH - length);
+                if (kraft > (1L << MAX_LENGTH)) throw new IllegalArgumentException("Code lengths are not a prefix code");
+                longest = Math.max(longest, length);
+            }
+        }
+        this.maxLength = longest;
+
+        //count the codes of each length and order the symbols by (length, symbol)
+        count = new int[longest + 1];
+        for (int length : lengths) {
+            if (length > 0) count[length]++;
+        }
+        firstIndex = new int[longest + 1];
+        for (int length = 1; length < longest; length++) {
+            firstIndex[length + 1] = firstIndex[length] + count[length];
+        }
+        int[] position = firstIndex.clone();
+        sorted = new int[longest == 0 ? 0 : firstIndex[longest] + count[longest]];
+        for (int i = 0; i < ALPHABET; i++) {
+            if (lengths[i] > 0) sorted[position[lengths[i]]++] = i;
+        }
+
+        //hand out the canonical codes in that order
+        firstCode = new long[longest + 1];
+        codes = new long[ALPHABET];
+        long code = 0;
+        for (int length = 1; length <= longest; length++) {
+            code = (code + count[length - 1]) << 1;
+            firstCode[length] = code;
+            for (int i = 0; i < count[length]; i++) {
+                codes[sorted[firstIndex[length] + i]] = code + i;
+            }
+        }
+
+        table = new int[1 << TABLE_BITS];
+        for (int symbol = 0; symbol < ALPHABET; symbol++) {
+            int length = lengths[symbol];
+            if (length > 0 && length <= TABLE_BITS) {
+                int start = (int) (codes[symbol] << (TABLE_BITS - length));
+                Arrays.fill(table, start, start + (1 << (TABLE_BITS - length)), (length << 8) | symbol);
+            }
+        }
+    }
+
+    /**
+     * Installs the listener that is told about every code built, and every
+     * buffer compressed or decompressed, by the static methods of this class.
+     *
+     * @param newListener the listener, or CompressionListener.NONE to stop reporting
+     */
+    public static void setListener(CompressionListener newListener) {
+        if (newListener == null) throw new IllegalArgumentException("Listener is null, use CompressionListener.NONE");
+        listener = newListener;
+    }
+
+    /**
+     * @return the listener installed by setListener
+     */
+    public static CompressionListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Builds the Huffman code for bytes that appear with the given frequencies.
+     *
+     * @param frequencies how many times each of the 256 byte values appears
+     * @return the code
+     */
+    public static ByteHuffmanCode fromFrequencies(int[] frequencies) {
+        if (frequencies == null || frequencies.length != ALPHABET)
+            throw new IllegalArgumentException("Need one frequency for each of the " + ALPHABET + " bytes");
+        return new ByteHuffmanCode(HuffmanCode.codeLengths(frequencies));
+    }
+
+    /**
+     * Counts how many times each byte value appears in the remaining bytes of a buffer.
+     * Post: the buffer's position is unchanged
+     *
+     * @param data the bytes to count
+     * @return an array of 256 counts
+     */
+    public static int[] frequencies(ByteBuffer data) {
+        int[] frequencies = new int[ALPHABET];
+        for (int i = data.position(); i < data.limit(); i++) {
+            frequencies[data.get(i) & 0xFF]++;
+        }
+        return frequencies;
+    }
+
+    /**
+     * Compresses an array of bytes.
+     *
+     * @param data the bytes to compress
+     * @return the compressed bytes, header included
+     */
+    public static byte[] compress(byte[] data) {
+        ByteBuffer packed = compress(ByteBuffer.wrap(data));
+        return packed.array();
+    }
+
+    /**
+     * Restores an array of bytes made by compress.
+     *
+     * @param packed the compressed bytes
+     * @return the original bytes
+     */
+    public static byte[] decompress(byte[] packed) {
+        ByteBuffer data = decompress(ByteBuffer.wrap(packed));
+        return data.array();
+    }
+
+    /**
+     * Compresses the remaining bytes of a buffer.
+     * Post: the buffer's position has moved to its limit
+     *
+     * @param data the bytes to compress
+     * @return a heap buffer holding exactly the compressed bytes, ready to be read
+     */
+    public static ByteBuffer compress(ByteBuffer data) {
+        CompressionListener report = listener;
+        boolean timed = report != CompressionListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        int bytesIn = data.remaining();
+
+        int[] frequencies = frequencies(data);
+        long counted = timed ? System.nanoTime() : 0;
+        ByteHuffmanCode code = fromFrequencies(frequencies);
+        //the listener gets its own copy, since the code keeps using its lengths
+        if (timed) report.codeBuilt(frequencies, code.lengths.clone(), System.nanoTime() - counted);
+
+        long bits = code.encodedBits(data);
+        long size = HEADER_SIZE + (bits + 7) / 8;
+        if (size > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Input is too large to compress into one array");
+
+        ByteBuffer packed = ByteBuffer.allocate((int) size);
+        code.writeLengths(packed);
+        packed.putLong(data.remaining());
+        BitWriter out = new BitWriter(packed);
+        code.encode(data, out);
+        out.flush();
+        packed.flip();
+        if (timed) report.compressed(bytesIn, packed.remaining(), System.nanoTime() - start);
+        return packed;
+    }
+
+    /**
+     * Restores the bytes in a buffer made by compress.
+     * Post: the buffer's position has moved past the compressed data
+     *
+     * @param packed the compressed bytes
+     * @return a heap buffer holding the original bytes, ready to be read
+     */
+    public static ByteBuffer decompress(ByteBuffer packed) {
+        if (packed.remaining() < HEADER_SIZE) throw new IllegalArgumentException("Missing header");
+        CompressionListener report = listener;
+        boolean timed = report != CompressionListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+        int bytesIn = packed.remaining();
+
+        ByteHuffmanCode code = readLengths(packed);
+        long size = packed.getLong();
+        if (size < 0 || size > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Bad original length " + size);
+
+        ByteBuffer data = ByteBuffer.allocate((int) size);
+        code.decode(new BitReader(packed), data, size);
+        data.flip();
+        if (timed) report.decompressed(bytesIn, size, System.nanoTime() - start);
+        return data;
+    }
+
+    /**
+     * @param symbol a byte value, 0 to 255
+     * @return the number of bits in that byte's code, or 0 if it has no code
+     */
+    public int length(int symbol) {
+        return lengths[symbol];
+    }
+
+    /**
+     * @param symbol a byte value, 0 to 255
+     * @return that byte's code, right-aligned in the result
+     */
+    public long code(int symbol) {
+        return codes[symbol];
+    }
+
+    /**
+     * Counts the bits needed to encode the remaining bytes of a buffer.
+     * Post: the buffer's position is unchanged
+     *
+     * @param data the bytes that will be encoded
+     * @return the number of bits, not counting the header
+     */
+    public long encodedBits(ByteBuffer data) {
+        long bits = 0;
+        for (int i = data.position(); i < data.limit(); i++) {
+            bits += lengths[data.get(i) & 0xFF];
+        }
+        return bits;
+    }
+
+    /**
+     * Writes the code length of every byte, one byte each.
+     *
+     * @param out where the lengths are written
+     */
+    void writeLengths(ByteBuffer out) {
+        for (int length : lengths) {
+            out.put((byte) length);
+        }
+    }
+
+    /**
+     * Reads code lengths written by writeLengths and builds their code.
+     *
+     * @param in where the lengths are read from
+     * @return the code
+     */
+    static ByteHuffmanCode readLengths(ByteBuffer in) {
+        int[] lengths = new int[ALPHABET];
+        for (int i = 0; i < ALPHABET; i++) {
+            lengths[i] = in.get() & 0xFF;
+        }
+        return new ByteHuffmanCode(lengths);
+    }
+
+    /**
+     * Writes the code of every remaining byte in a buffer.
+     * Pre: every byte in data has a code
+     * Post: data's position has moved to its limit
+     *
+     * @param data the bytes to encode
+     * @param out  where the codes are written
+     */
+    void encode(ByteBuffer data, BitWriter out) {
+        if (data.hasArray()) {
+            //skip the bounds checks of the buffer for the common heap case
+            byte[] array = data.array();
+            int end = data.arrayOffset() + data.limit();
+            for (int i = data.arrayOffset() + data.position(); i < end; i++) {
+                int symbol = array[i] & 0xFF;
+                out.write(codes[symbol], lengths[symbol]);
+            }
+            data.position(data.limit());
+        } else {
+            while (data.hasRemaining()) {
+                int symbol = data.get() & 0xFF;
+                out.write(codes[symbol], lengths[symbol]);
+            }
+        }
+    }
+
+    /**
+     * Reads codes and writes the bytes they stand for.
+     * Pre: out has room for count more bytes
+     *
+     * @param in    the packed codes
+     * @param out   where the bytes are written
+     * @param count the number of bytes to decode
+     */
+    void decode(BitReader in, ByteBuffer out, long count) {
+        for (long i = 0; i < count; i++) {
+            in.fill();
+            long window = in.window();
+            int entry = table[(int) (window >>> (64 - TABLE_BITS))];
+            int length;
+            int symbol;
+            if (entry != 0) {
+                length = entry >>> 8;
+                symbol = entry & 0xFF;
+            } else {
+                length = TABLE_BITS;
+                symbol = -1;
+                while (symbol < 0 && ++length <= maxLength) {
+                    long code = window >>> (64 - length);
+                    long offset = code - firstCode[length];
+                    if (offset >= 0 && offset < this.count[length]) {
+                        symbol = sorted[firstIndex[length] + (int) offset];
+                    }
+                }
+                if (symbol < 0) throw new IllegalArgumentException("Corrupt data: no code matches the input");
+            }
+            if (length > in.available()) throw new IllegalArgumentException("Corrupt data: input ended early");
+            in.skip(length);
+            out.put((byte) symbol);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/14/2020
+ *
+ * Interface description:
+ * Receives a report every time a Huffman coder builds a code,
+ * compresses data or decompresses data. Every method does nothing
+ * by default, so a listener only overrides what it cares about.
+ * Coders start out with NONE, and skip timing altogether while it
+ * is installed, so instrumentation costs nothing until it is turned on.
+ * Reports can come from many threads at once.
+ */
+public interface CompressionListener {
+
+    //the listener that ignores everything
+    CompressionListener NONE = new CompressionListener() {
+    };
+
+    /**
+     * Called after a code has been built from a set of frequencies.
+     *
+     * @param frequencies how many times each symbol appeared; must not be changed
+     * @param lengths     the code length given to each symbol; must not be changed
+     * @param nanos       how long building the code took
+     */
+    default void codeBuilt(int[] frequencies, int[] lengths, long nanos) {
+    }
+
+    /**
+     * Called after data has been compressed.
+     *
+     * @param bytesIn  the number of original bytes
+     * @param bytesOut the number of compressed bytes
+     * @param nanos    how long compressing took
+     */
+    default void compressed(long bytesIn, long bytesOut, long nanos) {
+    }
+
+    /**
+     * Called after data has been decompressed.
+     *
+     * @param bytesIn  the number of compressed bytes
+     * @param bytesOut the number of original bytes restored
+     * @param nanos    how long decompressing took
+     */
+    default void decompressed(long bytesIn, long bytesOut, long nanos) {
+    }
+}
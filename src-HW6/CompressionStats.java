@@ -0,0 +1,186 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/14/2020
+ *
+ * Class description:
+ * A CompressionListener that keeps running totals for everything the
+ * coders report: bytes in and out, the compression ratio, the average
+ * code length next to the entropy of the data it was built for, how
+ * long codes take to build, and compress/decompress speed in MB/s.
+ * The totals are safe to update from many threads. Registering the
+ * object with register() also makes them readable through JMX.
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class CompressionStats implements CompressionListener, CompressionStatsMBean {
+
+    private final LongAdder codesBuilt = new LongAdder();
+    private final LongAdder buildNanos = new LongAdder();
+
+    //symbols counted by the built codes, the bits their codes use, and the entropy bound
+    private final LongAdder symbols = new LongAdder();
+    private final LongAdder codeBits = new LongAdder();
+    private final DoubleAdder entropyBits = new DoubleAdder();
+
+    private final LongAdder compressIn = new LongAdder();
+    private final LongAdder compressOut = new LongAdder();
+    private final LongAdder compressNanos = new LongAdder();
+
+    private final LongAdder decompressOut = new LongAdder();
+    private final LongAdder decompressNanos = new LongAdder();
+
+    @Override
+    public void codeBuilt(int[] frequencies, int[] lengths, long nanos) {
+        long total = 0;
+        long bits = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            total += frequencies[i];
+            bits += (long) frequencies[i] * lengths[i];
+        }
+        double entropy = 0;
+        for (int frequency : frequencies) {
+            if (frequency > 0) entropy += frequency * (Math.log(total / (double) frequency) / Math.log(2));
+        }
+        codesBuilt.increment();
+        buildNanos.add(nanos);
+        symbols.add(total);
+        codeBits.add(bits);
+        entropyBits.add(entropy);
+    }
+
+    @Override
+    public void compressed(long bytesIn, long bytesOut, long nanos) {
+        compressIn.add(bytesIn);
+        compressOut.add(bytesOut);
+        compressNanos.add(nanos);
+    }
+
+    @Override
+    public void decompressed(long bytesIn, long bytesOut, long nanos) {
+        decompressOut.add(bytesOut);
+        decompressNanos.add(nanos);
+    }
+
+    /**
+     * @return the number of original bytes that have been compressed
+     */
+    @Override
+    public long getBytesCompressed() {
+        return compressIn.sum();
+    }
+
+    /**
+     * @return the number of bytes the compressed output took
+     */
+    @Override
+    public long getCompressedBytes() {
+        return compressOut.sum();
+    }
+
+    /**
+     * @return compressed size over original size, or 0 if nothing has been compressed
+     */
+    @Override
+    public double getCompressionRatio() {
+        long in = compressIn.sum();
+        return (in == 0) ? 0 : compressOut.sum() / (double) in;
+    }
+
+    /**
+     * @return the number of codes that have been built
+     */
+    @Override
+    public long getCodesBuilt() {
+        return codesBuilt.sum();
+    }
+
+    /**
+     * @return the average number of bits per symbol used by the built codes
+     */
+    @Override
+    public double getAverageCodeLength() {
+        long count = symbols.sum();
+        return (count == 0) ? 0 : codeBits.sum() / (double) count;
+    }
+
+    /**
+     * @return the entropy, in bits per symbol, of the data the codes were built for.
+     * No prefix code can average less than this.
+     */
+    @Override
+    public double getEntropy() {
+        long count = symbols.sum();
+        return (count == 0) ? 0 : entropyBits.sum() / count;
+    }
+
+    /**
+     * @return the average time taken to build a code, in milliseconds
+     */
+    @Override
+    public double getAverageBuildMillis() {
+        long count = codesBuilt.sum();
+        return (count == 0) ? 0 : buildNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * @return original megabytes compressed per second of compressing
+     */
+    @Override
+    public double getCompressMegabytesPerSecond() {
+        return megabytesPerSecond(compressIn.sum(), compressNanos.sum());
+    }
+
+    /**
+     * @return original megabytes restored per second of decompressing
+     */
+    @Override
+    public double getDecompressMegabytesPerSecond() {
+        return megabytesPerSecond(decompressOut.sum(), decompressNanos.sum());
+    }
+
+    /**
+     * Sets every total back to zero.
+     */
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[] {codesBuilt, buildNanos, symbols, codeBits,
+                compressIn, compressOut, compressNanos, decompressOut, decompressNanos}) {
+            adder.reset();
+        }
+        entropyBits.reset();
+    }
+
+    /**
+     * Makes these totals readable through the platform MBean server.
+     *
+     * @param name a name that tells this pipeline apart from others
+     * @return the name the MBean was registered under
+     * @throws JMException if the name is taken or cannot be registered
+     */
+    public ObjectName register(String name) throws JMException {
+        ObjectName objectName = new ObjectName("HuffmanCode:type=CompressionStats,name=" + ObjectName.quote(name));
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, objectName);
+        return objectName;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ratio %.3f, %.3f bits/symbol (entropy %.3f), build %.3f ms, "
+                        + "compress %.1f MB/s, decompress %.1f MB/s",
+                getCompressionRatio(), getAverageCodeLength(), getEntropy(), getAverageBuildMillis(),
+                getCompressMegabytesPerSecond(), getDecompressMegabytesPerSecond());
+    }
+
+    private static double megabytesPerSecond(long bytes, long nanos) {
+        return (nanos == 0) ? 0 : (bytes / 1e6) / (nanos / 1e9);
+    }
+}
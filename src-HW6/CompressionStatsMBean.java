@@ -0,0 +1,32 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/14/2020
+ *
+ * Interface description:
+ * The management interface of CompressionStats, so its totals can
+ * be read (and reset) through JMX once it has been registered.
+ */
+public interface CompressionStatsMBean {
+
+    long getBytesCompressed();
+
+    long getCompressedBytes();
+
+    double getCompressionRatio();
+
+    long getCodesBuilt();
+
+    double getAverageCodeLength();
+
+    double getEntropy();
+
+    double getAverageBuildMillis();
+
+    double getCompressMegabytesPerSecond();
+
+    double getDecompressMegabytesPerSecond();
+
+    void reset();
+}
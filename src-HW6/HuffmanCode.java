@@ -81,6 +81,67 @@ public class HuffmanCode {
         root = q.remove();
     }
 
+    /**
+     * Computes the Huffman code length of every character without building
+     * any nodes. The non-zero frequencies are sorted once, and then the tree
+     * is merged with the two-queue method: the sorted leaves form one queue
+     * and the merged weights form a second queue that is already in order,
+     * so the two smallest weights are always at the front of one of them.
+     * Pre: frequencies contains no negative counts
+     * Post: frequencies is unchanged
+     *
+     * @param frequencies an array of frequencies indexed by character
+     * @return an array the same size as frequencies holding the number of bits
+     * in the code of each character, or 0 for characters that never appear.
+     * A lone character is given a 1 bit code.
+     */
+    public static int[] codeLengths(int[] frequencies) {
+        int[] lengths = new int[frequencies.length];
+
+        //pack each frequency above its character so one primitive sort orders both
+        long[] leaves = new long[frequencies.length];
+        int n = 0;
+        for (int i = 0; i < frequencies.length; i++) {
+            if (frequencies[i] < 0) throw new IllegalArgumentException("Negative frequency at " + i);
+            if (frequencies[i] != 0) leaves[n++] = ((long) frequencies[i] << 32) | i;
+        }
+        if (n == 0) return lengths;
+        if (n == 1) {
+            lengths[(int) leaves[0]] = 1;
+            return lengths;
+        }
+        Arrays.sort(leaves, 0, n);
+
+        //nodes 0..n-1 are the leaves, nodes n..2n-2 are the merged nodes
+        long[] weight = new long[2 * n - 1];
+        int[] parent = new int[2 * n - 1];
+        for (int i = 0; i < n; i++) {
+            weight[i] = leaves[i] >>> 32;
+        }
+        int nextLeaf = 0;
+        int nextMerged = n;
+        for (int merged = n; merged < weight.length; merged++) {
+            //take the smaller front of the two queues, twice
+            int first = (nextMerged >= merged || (nextLeaf < n && weight[nextLeaf] <= weight[nextMerged]))
+                    ? nextLeaf++ : nextMerged++;
+            int second = (nextMerged >= merged || (nextLeaf < n && weight[nextLeaf] <= weight[nextMerged]))
+                    ? nextLeaf++ : nextMerged++;
+            weight[merged] = weight[first] + weight[second];
+            parent[first] = merged;
+            parent[second] = merged;
+        }
+
+        //parents always come after their children, so one backwards pass gives every depth
+        int[] depth = new int[2 * n - 1];
+        for (int i = 2 * n - 3; i >= 0; i--) {
+            depth[i] = depth[parent[i]] + 1;
+        }
+        for (int i = 0; i < n; i++) {
+            lengths[(int) leaves[i]] = depth[i];
+        }
+        return lengths;
+    }
+
     /**
      * Constructs a new Huffman code object by using an already existing
      * .code file
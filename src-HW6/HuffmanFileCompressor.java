@@ -0,0 +1,230 @@
+/**
+ * Robert Moseley
+ * Dr. Han
+ * EGR227: Data Structures
+ * 3/16/2020
+ *
+ * Class description:
+ * A command line file compressor built on ByteHuffmanCode that never
+ * pulls the file through a byte array. The input is memory-mapped with
+ * FileChannel.map, one segment of up to 1 GB at a time, so files of
+ * many gigabytes can be handled. Compressing reads the mapping twice
+ * (once to count bytes, once to encode); the codes are packed into a
+ * direct buffer that is written to the output channel whenever it fills.
+ * Decompressing reads the mapped input a long word at a time through
+ * BitReader. The file format is the same as ByteHuffmanCode.compress.
+ *
+ * Usage: java HuffmanFileCompressor compress|decompress <input> <output>
+ */
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+public class HuffmanFileCompressor {
+
+    //the most of the input mapped at once
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    //the size of the direct buffer output goes through
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("compress") || args[0].equals("decompress"))) {
+            System.err.println("Usage: java HuffmanFileCompressor compress|decompress <input> <output>");
+            return;
+        }
+        Path input = Paths.get(args[1]);
+        Path output = Paths.get(args[2]);
+        long start = System.nanoTime();
+        long written = args[0].equals("compress") ? compress(input, output) : decompress(input, output);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%s: %d bytes written in %.2f s%n", output, written, seconds);
+    }
+
+    /**
+     * Compresses a file into another file.
+     * Pre: input exists
+     * Post: output holds the compressed file, replacing anything that was there
+     *
+     * @param input  the file to compress
+     * @param output where the compressed file is written
+     * @return the size of the compressed file
+     * @throws IOException if either file cannot be used
+     */
+    public static long compress(Path input, Path output) throws IOException {
+        CompressionListener report = ByteHuffmanCode.getListener();
+        boolean timed = report != CompressionListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long size = in.size();
+
+            //first pass: count every byte
+            long[] counts = new long[ByteHuffmanCode.ALPHABET];
+            for (long position = 0; position < size; position += SEGMENT_SIZE) {
+                MappedByteBuffer segment = map(in, position, size);
+                for (int i = 0; i < segment.limit(); i++) {
+                    counts[segment.get(i) & 0xFF]++;
+                }
+            }
+            int[] frequencies = frequencies(counts);
+            long counted = timed ? System.nanoTime() : 0;
+            ByteHuffmanCode code = ByteHuffmanCode.fromFrequencies(frequencies);
+            if (timed) report.codeBuilt(frequencies, lengths(code), System.nanoTime() - counted);
+
+            //second pass: write the header and then the codes
+            ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+            code.writeLengths(buffer);
+            buffer.putLong(size);
+            ChannelBitWriter bits = new ChannelBitWriter(buffer, out);
+            try {
+                for (long position = 0; position < size; position += SEGMENT_SIZE) {
+                    code.encode(map(in, position, size), bits);
+                }
+                bits.flush();
+                bits.drain(buffer);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            long written = out.size();
+            if (timed) report.compressed(size, written, System.nanoTime() - start);
+            return written;
+        }
+    }
+
+    /**
+     * Restores a file made by compress (or ByteHuffmanCode.compress).
+     * Pre: input exists
+     * Post: output holds the original file, replacing anything that was there
+     *
+     * @param input  the compressed file
+     * @param output where the original file is written
+     * @return the size of the restored file
+     * @throws IOException if either file cannot be used
+     */
+    public static long decompress(Path input, Path output) throws IOException {
+        CompressionListener report = ByteHuffmanCode.getListener();
+        boolean timed = report != CompressionListener.NONE;
+        long start = timed ? System.nanoTime() : 0;
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE,
+                     StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            long packedSize = in.size();
+            if (packedSize < ByteHuffmanCode.HEADER_SIZE) throw new IllegalArgumentException("Missing header");
+            MappedByteBuffer first = map(in, 0, packedSize);
+            ByteHuffmanCode code = ByteHuffmanCode.readLengths(first);
+            long size = first.getLong();
+            if (size < 0) throw new IllegalArgumentException("Bad original length " + size);
+
+            BitReader bits = new MappedBitReader(first, in, packedSize);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(OUTPUT_BUFFER_SIZE);
+            try {
+                for (long remaining = size; remaining > 0; ) {
+                    int chunk = (int) Math.min(remaining, buffer.capacity());
+                    code.decode(bits, buffer, chunk);
+                    buffer.flip();
+                    writeFully(out, buffer);
+                    buffer.clear();
+                    remaining -= chunk;
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (timed) report.decompressed(packedSize, size, System.nanoTime() - start);
+            return size;
+        }
+    }
+
+    //maps the segment that starts at 'position'
+    private static MappedByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(SEGMENT_SIZE, size - position));
+    }
+
+    //shrinks counts that do not fit in an int, keeping every byte that appeared above zero
+    private static int[] frequencies(long[] counts) {
+        long largest = 0;
+        for (long count : counts) {
+            largest = Math.max(largest, count);
+        }
+        long divisor = largest / Integer.MAX_VALUE + 1;
+        int[] frequencies = new int[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) frequencies[i] = (int) Math.max(1, counts[i] / divisor);
+        }
+        return frequencies;
+    }
+
+    private static int[] lengths(ByteHuffmanCode code) {
+        int[] lengths = new int[ByteHuffmanCode.ALPHABET];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = code.length(i);
+        }
+        return lengths;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * A BitWriter that empties its direct buffer into a FileChannel.
+     */
+    private static class ChannelBitWriter extends BitWriter {
+        private final FileChannel channel;
+
+        public ChannelBitWriter(ByteBuffer buffer, FileChannel channel) {
+            super(buffer);
+            this.channel = channel;
+        }
+
+        @Override
+        protected void drain(ByteBuffer full) {
+            try {
+                full.flip();
+                writeFully(channel, full);
+                full.clear();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * A BitReader that maps the next segment of a file when the current one runs out.
+     */
+    private static class MappedBitReader extends BitReader {
+        private final FileChannel channel;
+        private final long size;
+        private long nextPosition;
+
+        public MappedBitReader(MappedByteBuffer first, FileChannel channel, long size) {
+            super(first);
+            this.channel = channel;
+            this.size = size;
+            this.nextPosition = first.limit();
+        }
+
+        @Override
+        protected ByteBuffer nextBuffer() {
+            if (nextPosition >= size) return null;
+            try {
+                MappedByteBuffer segment = map(channel, nextPosition, size);
+                nextPosition += segment.limit();
+                return segment;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}